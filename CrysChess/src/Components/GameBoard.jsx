@@ -1,5 +1,4 @@
 import React, { useState, useEffect } from "react";
-import { connectSocket } from "../Services/socketService";
 import { useSelector } from "react-redux";
 import { sendFriendRequest } from "../store/friendSlice";
 import userService from "../Services/userService";
@@ -229,7 +228,7 @@ const RulesModal = ({ open, onClose }) => {
   );
 };
 
-const GameBoard = () => {
+const GameBoard = ({ onMove, board: serverBoard, turn: serverTurn } = {}) => {
   const [gameOver, setGameOver] = useState(false);
   const gameId = useSelector((state) => state.game.gameId);
   const { gameData } = useSelector((state) => state.game);
@@ -417,8 +416,16 @@ const sendChatMessage = () => {
   const makeStar = (color) => `${color}-star`;
   const makeHexa = (color) => `${color}-hexa`;
 
+  // multiplayer: the server decides the outcome, and its FINISHED status names the winner
   useEffect(() => {
-    if (winner || gameOver) return; // stop if game already finished
+    if (!onMove || gameOver || gameData?.status !== "FINISHED") return;
+    setWinner(gameData.winner?.username || gameData.winner || "Draw");
+    setGameOver(true);
+  }, [onMove, gameData, gameOver]);
+
+  // local play: decide the outcome from the stone counts
+  useEffect(() => {
+    if (onMove || winner || gameOver) return; // stop if game already finished
 
     let redCount = 0;
     let blueCount = 0;
@@ -441,17 +448,11 @@ const sendChatMessage = () => {
     }
 
     if (newWinner) {
+      // 🔥 Show the modal
       setWinner(newWinner);
       setGameOver(true);
-
-      // 🔥 Show the modal
-
-      // Send to backend only if it's not a draw
-      if (newWinner !== "Draw") {
-        sendEnd(gameId, newWinner);
-      }
     }
-  }, [board, winner, gameOver, gameId]);
+  }, [onMove, board, winner, gameOver]);
 
   const isValidMove = (fromRow, fromCol, toRow, toCol) => {
     const dx = Math.abs(fromRow - toRow);
@@ -497,13 +498,20 @@ const sendChatMessage = () => {
    * - animate enemy removals, then apply removals + place spawns
    */
 
-useEffect(() => {
-  if (!user?.id || !gameId) return;
+  // multiplayer: the parent keeps the server's board (SNAPSHOT + MOVE deltas) and passes it down
+  useEffect(() => {
+    if (serverBoard?.length === BOARD_SIZE) setBoard(serverBoard);
+  }, [serverBoard]);
+
+  useEffect(() => {
+    if (serverTurn) setTurn(serverTurn);
+  }, [serverTurn]);
 
-  connectSocket(user.id, gameId, (updatedGame) => {
-    setBoard(JSON.parse(updatedGame.boardState));
-  });
-}, [user?.id, gameId]);
+  // multiplayer moves are only sent; the board changes when the server's MOVE event comes back
+  const sendToServer = (move) => {
+    setSelected(null);
+    onMove(move);
+  };
 
   const checkAndDestroy = (newBoard) => {
     const updated = newBoard.map((r) => [...r]);
@@ -1017,6 +1025,7 @@ useEffect(() => {
       if (e.key === "Enter" && selected) {
         const { row, col, piece } = selected;
         if (piece && piece.includes("-star") && baseColor(piece) === turn) {
+          if (onMove) return sendToServer({ type: "ACTIVATE", row, col });
           activateStarStone(row, col);
           setSelected(null);
           return; // don't also try to move
@@ -1044,6 +1053,9 @@ useEffect(() => {
         !board[newRow][newCol] &&
         isValidMove(row, col, newRow, newCol)
       ) {
+        if (onMove) {
+          return sendToServer({ fromRow: row, fromCol: col, toRow: newRow, toCol: newCol });
+        }
         let newBoard = board.map((r) => [...r]);
         newBoard[newRow][newCol] = piece;
         newBoard[row][col] = null;
@@ -1057,7 +1069,7 @@ useEffect(() => {
 
     window.addEventListener("keydown", handleKeyDown);
     return () => window.removeEventListener("keydown", handleKeyDown);
-  }, [selected, board, turn]);
+  }, [selected, board, turn, onMove]);
 
   // drag start
   const handleDragStart = (e, row, col) => {
@@ -1078,6 +1090,7 @@ useEffect(() => {
       isValidMove(fromRow, fromCol, row, col) &&
       baseColor(piece) === turn
     ) {
+      if (onMove) return sendToServer({ fromRow, fromCol, toRow: row, toCol: col });
       let newBoard = board.map((r) => [...r]);
       newBoard[row][col] = piece;
       newBoard[fromRow][fromCol] = null;
@@ -1100,6 +1113,15 @@ useEffect(() => {
         isValidMove(selected.row, selected.col, row, col) &&
         baseColor(selected.piece) === turn
       ) {
+        // 🧩 send only the move; the server validates it against its own board
+        if (onMove) {
+          return sendToServer({
+            fromRow: selected.row,
+            fromCol: selected.col,
+            toRow: row,
+            toCol: col,
+          });
+        }
         let newBoard = board.map((r) => [...r]);
         newBoard[row][col] = selected.piece;
         newBoard[selected.row][selected.col] = null;
@@ -1112,16 +1134,6 @@ useEffect(() => {
         setBoard(newBoard);
         setSelected(null);
         setTurn(nextTurn);
-
-        // 🧩 send updated board state to backend via parent prop
-        if (onMove) {
-          onMove(
-            JSON.stringify({
-              board: newBoard,
-              turn: nextTurn,
-            })
-          );
-        }
       } else {
         setSelected(null);
       }
@@ -1134,6 +1146,12 @@ useEffect(() => {
     e.stopPropagation();
     const piece = board[row][col];
     if (!piece) return;
+    if (onMove) {
+      if (baseColor(piece) === turn && /-(quad|star|hexa)$/.test(piece)) {
+        sendToServer({ type: "ACTIVATE", row, col });
+      }
+      return;
+    }
     if (piece.includes("-quad")) activateQuadCrystal(row, col);
     if (piece.includes("-star")) activateStarStone(row, col);
     if (piece.includes("-hexa")) activateHexaCrystal(row, col);
@@ -7,6 +7,7 @@ import {
   sendEnd,
   isSocketConnected,
   getActiveGameId,
+  applyGameEvent,
 } from "../Services/socketService";
 import GameBoard from "./GameBoard";
 import { useParams } from "react-router-dom";
@@ -27,6 +28,15 @@ const navigate = useNavigate();
   const dispatch = useDispatch();
   const [winnerModalVisible, setWinnerModalVisible] = useState(false);
   const [winner, setWinner] = useState(null);
+  // server board: set by SNAPSHOT events, then moved forward by MOVE deltas
+  const [position, setPosition] = useState(null);
+
+  // MOVE and SNAPSHOT only change the board; returns true when the event was one of them
+  const applyBoardEvent = (event) => {
+    if (event?.type !== "MOVE" && event?.type !== "SNAPSHOT") return false;
+    setPosition((prev) => applyGameEvent(prev, event));
+    return true;
+  };
 
   // 🔹 Join existing game if URL has gameId
 
@@ -48,7 +58,9 @@ const navigate = useNavigate();
 
     connectSocket(userId, gameId, (updatedGame) => {
       console.log("📡 [SOCKET UPDATE]", updatedGame);
+      if (applyBoardEvent(updatedGame)) return;
 
+      // STATUS: seats, status and winner
       setGame(updatedGame);
       dispatch(setGameData(updatedGame));
 
@@ -99,6 +111,7 @@ const navigate = useNavigate();
 
       connectSocket(userId, createdGame.id, (updatedGame) => {
         console.log("📡 [SOCKET UPDATE - FIND MATCH]", updatedGame);
+        if (applyBoardEvent(updatedGame)) return;
 
         setGame(updatedGame);
         dispatch(setGameData(updatedGame));
@@ -141,8 +154,10 @@ const navigate = useNavigate();
       return;
     }
 
-    console.log("🎯 Sending move:", move);
-    sendMove(activeGameId, JSON.stringify(move));
+    // the server only takes {playerId, fromRow, fromCol, toRow, toCol} or {type: "ACTIVATE", row, col}
+    const frame = { playerId: Number(userId), ...move };
+    console.log("🎯 Sending move:", frame);
+    sendMove(activeGameId, JSON.stringify(frame));
   };
 
   // 🔹 End game
@@ -173,20 +188,8 @@ const navigate = useNavigate();
       {game && isConnected ? (
         <GameBoard
           gameId={game.id}
-          board={(() => {
-            try {
-              return game.boardState ? JSON.parse(game.boardState).board : [];
-            } catch {
-              return [];
-            }
-          })()}
-          turn={(() => {
-            try {
-              return game.boardState ? JSON.parse(game.boardState).turn : "red";
-            } catch {
-              return "red";
-            }
-          })()}
+          board={position?.board}
+          turn={position?.turn}
           onMove={handleMove}
         />
       ) : (
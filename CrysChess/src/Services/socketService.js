@@ -11,6 +11,45 @@ const MAX_RETRIES = 5;
 
 let activeGameId = null;
 
+// seq of the last game event seen, per game, so a reconnect can ask for only what it missed
+const lastSeqs = {};
+
+const trackSeq = (gameId, data) => {
+  if (typeof data?.seq === "number" && data.seq > (lastSeqs[gameId] ?? -1)) {
+    lastSeqs[gameId] = data.seq;
+  }
+};
+
+/**
+ * Applies a game event to a position { board, turn, seq } and returns the new position
+ * (or the same one when the event does not change the board):
+ * - SNAPSHOT carries the whole board and replaces the position.
+ * - MOVE carries only what changed: the step, the cleared cells and the new crystals.
+ *   Moves already contained in the position (seq not newer) are skipped.
+ */
+export const applyGameEvent = (position, event) => {
+  if (event?.type === "SNAPSHOT") {
+    if (position && event.seq < position.seq) return position;
+    return { board: event.board, turn: event.turn, seq: event.seq };
+  }
+  if (event?.type !== "MOVE" || !position || event.seq <= position.seq) {
+    return position;
+  }
+
+  const board = position.board.map((r) => [...r]);
+  if (!event.activation) {
+    board[event.toRow][event.toCol] = board[event.fromRow][event.fromCol];
+    board[event.fromRow][event.fromCol] = null;
+  }
+  (event.destroyed || []).forEach(([r, c]) => {
+    board[r][c] = null;
+  });
+  (event.spawned || []).forEach(({ row, col, piece }) => {
+    board[row][col] = piece;
+  });
+  return { board, turn: event.turn, seq: event.seq };
+};
+
 export const getActiveGameId = () => activeGameId;
 // chat listener registry (no props / no Redux required)
 const chatListeners = [];
@@ -82,7 +121,7 @@ const socket = new SockJS(`http://localhost:8080/ws?userId=${userId}`);
 if (!stompClient._hasSubscribed) {
   stompClient._hasSubscribed = true;
 
-  stompClient.subscribe("/topic/presence", (message) => {
+  stompClient.subscribe("/user/queue/presence", (message) => {
   if (!message.body) return;
 
   const data = JSON.parse(message.body);
@@ -116,8 +155,23 @@ console.log("📡 GAME SOCKET MESSAGE:", data.status);    if (data.type === "CHA
       return;
     }
 
+    trackSeq(gameId, data);
     callback(data);
   });
+
+  // snapshots and replayed events meant for this user only
+  stompClient.subscribe(`/user/queue/game/${gameId}`, (message) => {
+    if (!message.body) return;
+
+    const data = JSON.parse(message.body);
+    trackSeq(gameId, data);
+    callback(data);
+  });
+
+  // back after a dropped connection: replay what was missed (or get a snapshot)
+  if (gameId != null && lastSeqs[gameId] != null) {
+    stompClient.send(`/app/game/${gameId}/resume`, {}, String(lastSeqs[gameId]));
+  }
 }
      }, 50);
     },
@@ -0,0 +1,128 @@
+package com.shanks.game.boardgame_backend.bench;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.engine.Outcome;
+import com.shanks.game.boardgame_backend.engine.Rules;
+import com.shanks.game.boardgame_backend.session.GameSession;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/** Stand-ins for the database side so the benchmarks measure only our own code. */
+final class BenchSupport {
+
+    private BenchSupport() {
+    }
+
+    /**
+     * A repository whose methods answer from the given handlers (by method name) and otherwise
+     * return an empty value: empty list or Optional, 0, false or null.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> handler = handlers.get(method.getName());
+            if (handler != null) return handler.apply(args);
+            Class<?> r = method.getReturnType();
+            if (r == List.class || r == Iterable.class) return List.of();
+            if (r == Optional.class) return Optional.empty();
+            if (r == int.class) return 0;
+            if (r == long.class) return 0L;
+            if (r == boolean.class) return false;
+            if (method.getName().equals("toString")) return type.getSimpleName() + " stub";
+            if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+            if (method.getName().equals("equals")) return proxy == args[0];
+            return null;
+        });
+    }
+
+    static <T> T repository(Class<T> type) {
+        return repository(type, Map.of());
+    }
+
+    /** Runs callbacks without any transaction. */
+    static TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+        });
+    }
+
+    /** A session whose mailbox runs tasks on the calling thread. */
+    static GameSession session(Long gameId, Long player1Id, Long player2Id, Board board) {
+        try {
+            Constructor<GameSession> c = GameSession.class.getDeclaredConstructor(Long.class, Long.class,
+                    Long.class, Long.class, Board.class, Long.class, Executor.class, int.class);
+            c.setAccessible(true);
+            Executor direct = Runnable::run;
+            return c.newInstance(gameId, gameId, player1Id, player2Id, board, null, direct, 256);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static List<Integer> legalMoves(Board b) {
+        List<Integer> moves = new ArrayList<>();
+        long own = b.colorMask(b.getTurn());
+        for (int from = 0; from < 64; from++) {
+            if ((own & (1L << from)) == 0) continue;
+            for (int to = 0; to < 64; to++) {
+                int step = Move.step(from, to);
+                if (Rules.isLegal(b, step)) moves.add(step);
+            }
+            int activation = Move.activate(from);
+            if (Rules.isLegal(b, activation)) moves.add(activation);
+        }
+        return moves;
+    }
+
+    /** A seeded random game, stopped before the move that would end it. */
+    static List<Integer> playout(long seed, int maxPlies) {
+        Random random = new Random(seed);
+        Board b = Board.initial();
+        List<Integer> game = new ArrayList<>();
+        while (game.size() < maxPlies) {
+            List<Integer> moves = legalMoves(b);
+            if (moves.isEmpty()) break;
+            int move = moves.get(random.nextInt(moves.size()));
+            Board next = b.copy();
+            Rules.apply(next, move);
+            if (Rules.outcome(next) != Outcome.ONGOING) break;
+            game.add(move);
+            b = next;
+        }
+        return game;
+    }
+
+    static Board play(List<Integer> moves, int plies) {
+        Board b = Board.initial();
+        for (int i = 0; i < plies; i++) Rules.apply(b, moves.get(i));
+        return b;
+    }
+}
@@ -0,0 +1,51 @@
+package com.shanks.game.boardgame_backend.bench;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.BoardCodec;
+import com.shanks.game.boardgame_backend.engine.BoardJson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** The client's JSON board against the 34-byte binary form stored in game_data, on a midgame position. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardFormatBenchmark {
+
+    private Board board;
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        List<Integer> game = BenchSupport.playout(7, 400);
+        board = BenchSupport.play(game, Math.min(40, game.size()));
+        json = BoardJson.write(board);
+        bytes = BoardCodec.encode(board);
+    }
+
+    @Benchmark
+    public String jsonWrite() {
+        return BoardJson.write(board);
+    }
+
+    @Benchmark
+    public Board jsonRead() {
+        return BoardJson.read(json);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return BoardCodec.encode(board);
+    }
+
+    @Benchmark
+    public Board binaryDecode() {
+        return BoardCodec.decode(bytes);
+    }
+}
@@ -0,0 +1,98 @@
+package com.shanks.game.boardgame_backend.bench;
+
+import com.shanks.game.boardgame_backend.execution.ExecutionMode;
+import com.shanks.game.boardgame_backend.execution.LimitedDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A burst of STOMP messages whose handlers each spend queryMicros on a database connection, run the
+ * way each app.execution.mode runs them: platform is Spring's default clientInboundChannel pool
+ * (2 threads per core), virtual is a thread per message behind a LimitedDataSource of 10 permits.
+ * Scored as bursts per second; virtual needs Java 21 and measures the platform setup otherwise.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final int POOL_SIZE = 10;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"500"})
+    public int messages;
+
+    @Param({"2000"})
+    public long queryMicros;
+
+    private Executor executor;
+    private ThreadPoolTaskExecutor pool;
+    private DataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DataSource database = database(queryMicros);
+        if (ExecutionMode.resolve(mode) == ExecutionMode.VIRTUAL) {
+            executor = ExecutionMode.virtualExecutor("bench-");
+            dataSource = new LimitedDataSource(database, POOL_SIZE, 30_000);
+        } else {
+            pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(Runtime.getRuntime().availableProcessors() * 2);
+            pool.setAllowCoreThreadTimeOut(true);
+            pool.initialize();
+            executor = pool;
+            dataSource = database;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(messages);
+        for (int i = 0; i < messages; i++) {
+            executor.execute(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    connection.isValid(0);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    // every statement parks for the query time, as a thread waiting on MySQL would
+    private static DataSource database(long queryMicros) {
+        Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("isValid")) {
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(queryMicros));
+                        return true;
+                    }
+                    return null;
+                });
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) ->
+                        method.getName().equals("getConnection") ? connection : null);
+    }
+}
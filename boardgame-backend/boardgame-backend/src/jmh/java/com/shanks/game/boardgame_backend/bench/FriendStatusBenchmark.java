@@ -0,0 +1,69 @@
+package com.shanks.game.boardgame_backend.bench;
+
+import com.shanks.game.boardgame_backend.dao.repository.FriendRepository;
+import com.shanks.game.boardgame_backend.dto.entity.Friend;
+import com.shanks.game.boardgame_backend.friends.FriendGraph;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Friendship statuses for a page of users, as the profile and search pages ask for them.
+ * The repository is stubbed, so afterInvalidate measures building an adjacency, not the two queries.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FriendStatusBenchmark {
+
+    private static final Long USER_ID = 1L;
+
+    @Param({"50", "500"})
+    public int friends;
+
+    private FriendGraph graph;
+    private List<Long> page;
+
+    @Setup
+    public void setUp() {
+        List<Friend> sent = new ArrayList<>();
+        List<Friend> received = new ArrayList<>();
+        for (long i = 0; i < friends; i++) {
+            long other = 100 + i;
+            String status = i % 5 == 0 ? "PENDING" : "ACCEPTED";
+            sent.add(Friend.builder().id(2 * i).userId(USER_ID).friendId(other).status(status).build());
+            if ("ACCEPTED".equals(status)) {
+                received.add(Friend.builder().id(2 * i + 1).userId(other).friendId(USER_ID).status(status).build());
+            }
+        }
+        FriendRepository repository = BenchSupport.repository(FriendRepository.class, Map.of(
+                "findByUserId", args -> sent,
+                "findByFriendId", args -> received));
+
+        graph = new FriendGraph();
+        ReflectionTestUtils.setField(graph, "friendRepository", repository);
+        ReflectionTestUtils.setField(graph, "maxUsers", 50000);
+
+        // a search page: some friends, some strangers
+        page = new ArrayList<>();
+        for (long i = 0; i < 20; i++) page.add(100 + i * 7);
+    }
+
+    @Benchmark
+    public Map<Long, String> cached() {
+        return graph.statuses(USER_ID, page);
+    }
+
+    @Benchmark
+    public Map<Long, String> afterInvalidate() {
+        graph.invalidate(USER_ID, 0L);
+        return graph.statuses(USER_ID, page);
+    }
+}
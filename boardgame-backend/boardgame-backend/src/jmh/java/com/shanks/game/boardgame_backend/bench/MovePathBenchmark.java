@@ -0,0 +1,152 @@
+package com.shanks.game.boardgame_backend.bench;
+
+import com.shanks.game.boardgame_backend.controller.GameSocketController;
+import com.shanks.game.boardgame_backend.dao.repository.GameDataRepository;
+import com.shanks.game.boardgame_backend.dao.repository.GameMoveRepository;
+import com.shanks.game.boardgame_backend.dao.repository.GameRepository;
+import com.shanks.game.boardgame_backend.dao.repository.GameSnapshotRepository;
+import com.shanks.game.boardgame_backend.dao.repository.UserRepository;
+import com.shanks.game.boardgame_backend.dao.service.BotService;
+import com.shanks.game.boardgame_backend.dao.service.GameDataService;
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.session.GameDataWriteBehind;
+import com.shanks.game.boardgame_backend.session.GameLanes;
+import com.shanks.game.boardgame_backend.session.GameSession;
+import com.shanks.game.boardgame_backend.session.GameSessionRegistry;
+import com.shanks.game.boardgame_backend.spectate.SpectatorHub;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One socket move end to end: payload parsing in the controller, the hand-off to the game's lane,
+ * validation and rules on the session, the write-behind enqueue, move logging and the MOVE event
+ * serialised to JSON. Each call waits until its lane has run the move. Repositories and the broker are
+ * stubbed, nobody is a bot or watching; the write-behind buffer is flushed (against the stubs) every 1024 moves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovePathBenchmark {
+
+    private static final Long GAME_ID = 1L;
+    private static final Long RED_ID = 10L;
+    private static final Long BLUE_ID = 20L;
+
+    private GameSocketController controller;
+    private GameLanes lanes;
+    private SpectatorHub spectatorHub;
+    private GameDataWriteBehind writeBehind;
+    private GameSession session;
+    private String[] payloads;
+    private int next;
+    private int count;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        writeBehind = new GameDataWriteBehind();
+        ReflectionTestUtils.setField(writeBehind, "gameDataRepository", BenchSupport.repository(GameDataRepository.class));
+        ReflectionTestUtils.setField(writeBehind, "gameMoveRepository", BenchSupport.repository(GameMoveRepository.class));
+        ReflectionTestUtils.setField(writeBehind, "gameSnapshotRepository", BenchSupport.repository(GameSnapshotRepository.class));
+        ReflectionTestUtils.setField(writeBehind, "transactionTemplate", BenchSupport.transactionTemplate());
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 50);
+
+        lanes = new GameLanes(1);
+        GameSessionRegistry registry = new GameSessionRegistry();
+        ReflectionTestUtils.setField(registry, "lanes", lanes);
+        ReflectionTestUtils.setField(registry, "writeBehind", writeBehind);
+        ReflectionTestUtils.setField(registry, "replaySize", 256);
+        // its mailbox runs tasks inline, which here is already on the game's lane
+        session = registry.register(BenchSupport.session(GAME_ID, RED_ID, BLUE_ID, Board.initial()));
+
+        // the bot account is looked up once; marked as looked up and not found
+        BotService botService = new BotService();
+        ReflectionTestUtils.setField(botService, "resolved", true);
+        spectatorHub = new SpectatorHub();
+
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> true);
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+
+        GameDataService service = new GameDataService();
+        ReflectionTestUtils.setField(service, "sessionRegistry", registry);
+        ReflectionTestUtils.setField(service, "writeBehind", writeBehind);
+        ReflectionTestUtils.setField(service, "messagingTemplate", template);
+        ReflectionTestUtils.setField(service, "snapshotInterval", 20);
+        ReflectionTestUtils.setField(service, "gameDataRepository", BenchSupport.repository(GameDataRepository.class));
+        ReflectionTestUtils.setField(service, "gameRepository", BenchSupport.repository(GameRepository.class));
+        ReflectionTestUtils.setField(service, "userRepository", BenchSupport.repository(UserRepository.class));
+        ReflectionTestUtils.setField(service, "botService", botService);
+        ReflectionTestUtils.setField(service, "spectatorHub", spectatorHub);
+
+        controller = new GameSocketController();
+        ReflectionTestUtils.setField(controller, "gameDataService", service);
+        ReflectionTestUtils.setField(controller, "lanes", lanes);
+
+        List<Integer> game = BenchSupport.playout(42, 400);
+        payloads = new String[game.size()];
+        Board b = Board.initial();
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = payload(game.get(i), b.getTurn() == Board.RED ? RED_ID : BLUE_ID);
+            com.shanks.game.boardgame_backend.engine.Rules.apply(b, game.get(i));
+        }
+
+        // a rejected move is only logged by the controller, so make sure the whole game really plays
+        for (String p : payloads) controller.handleMove(GAME_ID, p);
+        drain();
+        if (session.getPly() != payloads.length) {
+            throw new IllegalStateException("Benchmark game did not replay: " + session.getPly() + " of " + payloads.length);
+        }
+        restart();
+    }
+
+    private static String payload(int move, Long playerId) {
+        int from = Move.from(move);
+        if (Move.isActivation(move)) {
+            return "{\"playerId\":" + playerId + ",\"type\":\"ACTIVATE\",\"row\":" + Board.row(from)
+                    + ",\"col\":" + Board.col(from) + "}";
+        }
+        int to = Move.to(move);
+        return "{\"playerId\":" + playerId + ",\"fromRow\":" + Board.row(from) + ",\"fromCol\":" + Board.col(from)
+                + ",\"toRow\":" + Board.row(to) + ",\"toCol\":" + Board.col(to) + "}";
+    }
+
+    // waits for everything queued on the game's lane so far
+    private void drain() {
+        CountDownLatch done = new CountDownLatch(1);
+        lanes.execute(GAME_ID, done::countDown);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void restart() {
+        session.getBoard().copyFrom(Board.initial());
+        next = 0;
+    }
+
+    @Benchmark
+    public void handleMove() {
+        if (next == payloads.length) restart();
+        controller.handleMove(GAME_ID, payloads[next++]);
+        drain();
+        if ((++count & 1023) == 0) writeBehind.flushAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        lanes.shutdown();
+        spectatorHub.shutdown();
+    }
+}
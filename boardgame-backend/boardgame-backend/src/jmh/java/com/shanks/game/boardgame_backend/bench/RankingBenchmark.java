@@ -0,0 +1,70 @@
+package com.shanks.game.boardgame_backend.bench;
+
+import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.ranking.RankIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of re-ranking after one finished game. fullRecalculation is the in-memory part of the old
+ * recalculateRanks (sort everyone, assign every rank) and leaves out its one UPDATE per user;
+ * indexUpdate is what endGame does now: two index moves and the two new ranks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    private List<User> all;
+    private RankIndex index;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        random = new Random(1);
+        all = new ArrayList<>(users);
+        index = new RankIndex();
+        for (long id = 1; id <= users; id++) {
+            int points = random.nextInt(3000);
+            all.add(User.builder().id(id).username("user" + id).rankPoints(points).build());
+            index.put(id, "user" + id, points);
+        }
+    }
+
+    @Benchmark
+    public int fullRecalculation() {
+        User winner = all.get(random.nextInt(users));
+        User loser = all.get(random.nextInt(users));
+        winner.setRankPoints(winner.getRankPoints() + 3);
+        loser.setRankPoints(Math.max(0, loser.getRankPoints() - 1));
+
+        List<User> sorted = new ArrayList<>(all);
+        sorted.sort(Comparator.comparingInt(User::getRankPoints).reversed());
+        int rank = 1;
+        for (User u : sorted) u.setCurrentRank(rank++);
+        return winner.getCurrentRank();
+    }
+
+    @Benchmark
+    public int indexUpdate() {
+        User winner = all.get(random.nextInt(users));
+        User loser = all.get(random.nextInt(users));
+        winner.setRankPoints(winner.getRankPoints() + 3);
+        loser.setRankPoints(Math.max(0, loser.getRankPoints() - 1));
+
+        index.put(winner.getId(), winner.getUsername(), winner.getRankPoints());
+        index.put(loser.getId(), loser.getUsername(), loser.getRankPoints());
+        return index.rankOf(winner.getId()) + index.rankOf(loser.getId());
+    }
+}
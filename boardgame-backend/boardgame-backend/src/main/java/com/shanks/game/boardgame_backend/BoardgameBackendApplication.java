@@ -2,8 +2,10 @@ package com.shanks.game.boardgame_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BoardgameBackendApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(BoardgameBackendApplication.class, args);
@@ -0,0 +1,142 @@
+package com.shanks.game.boardgame_backend.book;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Opening book written by {@link OpeningBookGenerator}: fixed-size entries (position key, best move, score,
+ * search depth) sorted by key in a memory-mapped file. A lookup is a binary search over the mapping that
+ * allocates nothing.
+ *
+ * Keys are {@link Board#hash()} values; the header records the key of the initial position so a book
+ * built with other Zobrist keys is refused instead of answering for the wrong positions.
+ */
+public final class OpeningBook {
+
+    static final int MAGIC = 0x43424B31; // "CBK1"
+    static final int HEADER_BYTES = 32;
+    static final int ENTRY_BYTES = 16;
+
+    private static final OpeningBook EMPTY = new OpeningBook(ByteBuffer.allocate(0), 0, 0, 0);
+
+    // entries only, little endian: long key, int move, short score, short depth
+    private final ByteBuffer entries;
+    private final int size;
+    private final int plies;
+    private final int depth;
+
+    private OpeningBook(ByteBuffer entries, int size, int plies, int depth) {
+        this.entries = entries;
+        this.size = size;
+        this.plies = plies;
+        this.depth = depth;
+    }
+
+    public static OpeningBook empty() {
+        return EMPTY;
+    }
+
+    /** Maps the book file; a missing file gives an empty book. */
+    public static OpeningBook open(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) return EMPTY;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not an opening book: " + file);
+            }
+            int size = header.getInt();
+            long initialKey = header.getLong();
+            int plies = header.getShort();
+            int depth = header.getShort();
+            if (initialKey != Board.initial().hash()) {
+                throw new IOException("Opening book was built with different position keys: " + file);
+            }
+            if (channel.size() != HEADER_BYTES + (long) size * ENTRY_BYTES) {
+                throw new IOException("Truncated opening book: " + file);
+            }
+            ByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) size * ENTRY_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            return new OpeningBook(entries, size, plies, depth);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Plies from the initial position the book was built for. */
+    public int plies() {
+        return plies;
+    }
+
+    /** Fixed search depth behind every entry. */
+    public int depth() {
+        return depth;
+    }
+
+    /** Entry number for the position key, or -1. */
+    public int find(long key) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long k = entries.getLong(mid * ENTRY_BYTES);
+            if (k < key) lo = mid + 1;
+            else if (k > key) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    public int move(int entry) {
+        return entries.getInt(entry * ENTRY_BYTES + 8);
+    }
+
+    public int score(int entry) {
+        return entries.getShort(entry * ENTRY_BYTES + 12);
+    }
+
+    public int depth(int entry) {
+        return entries.getShort(entry * ENTRY_BYTES + 14);
+    }
+
+    /** Book move for the position, or {@link Move#NONE} when it is not in the book. */
+    public int move(Board board) {
+        int entry = find(board.hash());
+        return entry < 0 ? Move.NONE : move(entry);
+    }
+
+    /** Writes entries (keys and the matching moves, scores and depths) sorted by key. */
+    static void write(Path file, long[] keys, int[] moves, int[] scores, int[] depths, int plies, int depth)
+            throws IOException {
+        int n = keys.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + n * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(n).putLong(Board.initial().hash()).putShort((short) plies).putShort((short) depth);
+        out.position(HEADER_BYTES);
+        for (int i : order) {
+            out.putLong(keys[i]).putInt(moves[i]).putShort((short) scores[i]).putShort((short) depths[i]);
+        }
+        out.flip();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) channel.write(out);
+        }
+    }
+}
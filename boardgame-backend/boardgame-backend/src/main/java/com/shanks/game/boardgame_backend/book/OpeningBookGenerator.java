@@ -0,0 +1,145 @@
+package com.shanks.game.boardgame_backend.book;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.engine.MoveGenerator;
+import com.shanks.game.boardgame_backend.engine.Rules;
+import com.shanks.game.boardgame_backend.search.Search;
+import com.shanks.game.boardgame_backend.search.SearchResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the opening book offline. Every game starts from {@link Board#initial()}, so the book follows the
+ * game tree from there for a fixed number of plies, once for each colour: where that colour is to move
+ * only its searched best move is followed, where the opponent is to move every reply is. That keeps the
+ * tree to the positions a player of that colour can actually meet while playing the book.
+ *
+ * Each position is searched to a fixed depth, so the book does not depend on the machine; the positions
+ * of one ply are searched in parallel, one single-threaded search per pool thread. The pool is a plain
+ * one: a search joins its own fork-join task, and inside a fork-join pool that join could run another
+ * position's search on the same thread and the same Search.
+ *
+ * {@code mvn -Pbook package -Dbook.plies=10 -Dbook.depth=6}
+ */
+public final class OpeningBookGenerator {
+
+    // generous: the fixed depth, not the clock, ends each search
+    private static final long SEARCH_BUDGET_MS = 600_000;
+    private static final int TABLE_MB = 16;
+
+    private final int plies;
+    private final int depth;
+    private final ExecutorService pool;
+    private final Map<Long, SearchResult> book = new ConcurrentHashMap<>();
+    private final Queue<Search> searches = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Search> search = ThreadLocal.withInitial(() -> {
+        Search s = new Search(1, TABLE_MB);
+        searches.add(s);
+        return s;
+    });
+
+    public OpeningBookGenerator(int plies, int depth, ExecutorService pool) {
+        this.plies = plies;
+        this.depth = depth;
+        this.pool = pool;
+    }
+
+    public void generate(Path file) throws IOException {
+        long start = System.nanoTime();
+        try {
+            grow(Board.RED);
+            grow(Board.BLUE);
+        } finally {
+            searches.forEach(Search::close);
+        }
+
+        int n = book.size();
+        long[] keys = new long[n];
+        int[] moves = new int[n];
+        int[] scores = new int[n];
+        int[] depths = new int[n];
+        int i = 0;
+        for (Map.Entry<Long, SearchResult> e : book.entrySet()) {
+            keys[i] = e.getKey();
+            moves[i] = e.getValue().bestMove();
+            scores[i] = e.getValue().score();
+            depths[i] = e.getValue().depth();
+            i++;
+        }
+        OpeningBook.write(file, keys, moves, scores, depths, plies, depth);
+        System.out.printf("%d positions written to %s in %d s%n", n, file, (System.nanoTime() - start) / 1_000_000_000L);
+    }
+
+    private void grow(int side) {
+        List<Board> layer = List.of(Board.initial());
+        for (int ply = 0; ply < plies && !layer.isEmpty(); ply++) {
+            Map<Long, Board> next = new LinkedHashMap<>();
+            if (layer.get(0).getTurn() == side) {
+                searchAll(layer);
+                for (Board b : layer) {
+                    int move = book.get(b.hash()).bestMove();
+                    if (move != Move.NONE) addChild(next, b, move);
+                }
+            } else {
+                int[] moves = new int[MoveGenerator.MAX_MOVES];
+                for (Board b : layer) {
+                    int n = MoveGenerator.generate(b, moves);
+                    for (int i = 0; i < n; i++) addChild(next, b, moves[i]);
+                }
+            }
+            layer = new ArrayList<>(next.values());
+            System.out.printf("%s book, ply %d: %d positions, %d in book%n",
+                    Board.colorName(side), ply + 1, layer.size(), book.size());
+        }
+    }
+
+    private void searchAll(List<Board> positions) {
+        List<Future<?>> pending = new ArrayList<>();
+        for (Board b : positions) {
+            // the other colour's tree may have reached it already
+            if (book.containsKey(b.hash())) continue;
+            pending.add(pool.submit(() -> book.put(b.hash(), search.get().search(b, SEARCH_BUDGET_MS, depth))));
+        }
+        try {
+            for (Future<?> f : pending) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+    }
+
+    // finished games end the line
+    private static void addChild(Map<Long, Board> next, Board parent, int move) {
+        Board child = parent.copy();
+        Rules.apply(child, move);
+        if (!Rules.outcome(child).isFinished()) next.putIfAbsent(child.hash(), child);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : "book/opening.book");
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            new OpeningBookGenerator(plies, depth, pool).generate(file);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
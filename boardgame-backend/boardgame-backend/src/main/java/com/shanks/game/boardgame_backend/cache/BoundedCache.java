@@ -0,0 +1,148 @@
+package com.shanks.game.boardgame_backend.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Least-recently-used map with a size cap and a time-to-live per entry, counting hits, misses and evictions.
+ * Loaders run outside the lock; a value loaded while the same key was invalidated is not stored,
+ * so a write that races a read never leaves the old row behind.
+ */
+public class BoundedCache<K, V> {
+
+    private record Slot<V>(V value, long expiresAt) {
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Slot<V>> map;
+
+    // bumped by every invalidation; a load only lands when nothing was invalidated meanwhile
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public BoundedCache(int maxSize, long ttlMs) {
+        this(maxSize, ttlMs, System::nanoTime);
+    }
+
+    BoundedCache(int maxSize, long ttlMs, LongSupplier clock) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be positive");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.clock = clock;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Slot<V>> eldest) {
+                if (size() <= BoundedCache.this.maxSize) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /** The cached value, or null when absent or expired. Counts a hit or a miss. */
+    public synchronized V getIfPresent(K key) {
+        Slot<V> slot = map.get(key);
+        if (slot != null && clock.getAsLong() - slot.expiresAt < 0) {
+            hits++;
+            return slot.value;
+        }
+        if (slot != null) {
+            map.remove(key);
+            expirations++;
+        }
+        misses++;
+        return null;
+    }
+
+    /** The cached value, or the loader's result which is then cached; null results are not cached. */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long seen;
+        synchronized (this) {
+            V cached = getIfPresent(key);
+            if (cached != null) return cached;
+            seen = generation;
+        }
+        V loaded = loader.apply(key);
+        if (loaded != null) putIfUnchanged(seen, key, loaded);
+        return loaded;
+    }
+
+    /** Token for {@link #putIfUnchanged}; take it before reading the value from its source. */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /** Stores a value read after {@link #generation()} returned seen, unless something was invalidated since. */
+    public synchronized boolean putIfUnchanged(long seen, K key, V value) {
+        if (generation != seen) return false;
+        store(key, value);
+        return true;
+    }
+
+    public synchronized void put(K key, V value) {
+        generation++;
+        store(key, value);
+    }
+
+    public synchronized V invalidate(K key) {
+        generation++;
+        Slot<V> slot = map.remove(key);
+        return slot == null ? null : slot.value;
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        map.clear();
+    }
+
+    /** Drops expired entries; lookups already skip them, this only frees the memory early. */
+    public synchronized int purgeExpired() {
+        long now = clock.getAsLong();
+        int purged = 0;
+        for (Iterator<Slot<V>> it = map.values().iterator(); it.hasNext(); ) {
+            if (now - it.next().expiresAt >= 0) {
+                it.remove();
+                purged++;
+            }
+        }
+        expirations += purged;
+        return purged;
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized long expirations() {
+        return expirations;
+    }
+
+    private void store(K key, V value) {
+        map.put(key, new Slot<>(value, clock.getAsLong() + ttlNanos));
+    }
+}
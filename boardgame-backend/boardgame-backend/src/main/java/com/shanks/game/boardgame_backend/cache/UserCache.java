@@ -0,0 +1,144 @@
+package com.shanks.game.boardgame_backend.cache;
+
+import com.shanks.game.boardgame_backend.dao.repository.UserRepository;
+import com.shanks.game.boardgame_backend.dao.service.LeaderboardService;
+import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.dto.view.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Users by id and by username, so hot profiles and seated players skip the users table.
+ * Callers get a copy of the cached row with the rank filled from the leaderboard, never the cached
+ * instance itself. Every write to a users row has to {@link #evict} it (or {@link #put} the saved row).
+ */
+@Component
+public class UserCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Value("${app.user-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.user-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    private BoundedCache<Long, User> byId;
+    // username -> id; checked against the row it points to, so a rename can never serve another user
+    private BoundedCache<String, Long> byUsername;
+
+    @PostConstruct
+    void init() {
+        byId = new BoundedCache<>(maxSize, ttlMs);
+        byUsername = new BoundedCache<>(maxSize, ttlMs);
+    }
+
+    public Optional<User> findById(Long id) {
+        if (id == null) return Optional.empty();
+        return Optional.ofNullable(byId.get(id, this::load)).map(this::copy);
+    }
+
+    public Optional<User> findByUsername(String username) {
+        if (username == null) return Optional.empty();
+        Long id = byUsername.getIfPresent(username);
+        if (id != null) {
+            User cached = byId.get(id, this::load);
+            if (cached != null && cached.getUsername().equalsIgnoreCase(username)) {
+                return Optional.of(copy(cached));
+            }
+            byUsername.invalidate(username);
+        }
+        long seen = byId.generation();
+        Optional<User> loaded = userRepository.findByUsername(username);
+        loaded.ifPresent(u -> {
+            if (byId.putIfUnchanged(seen, u.getId(), u)) byUsername.put(username, u.getId());
+        });
+        return loaded.map(this::copy);
+    }
+
+    /** Caches a row that was just saved; the caller's instance is copied, not shared. */
+    public void put(User user) {
+        if (user == null || user.getId() == null) return;
+        User previous = byId.invalidate(user.getId());
+        if (previous != null && !previous.getUsername().equals(user.getUsername())) {
+            byUsername.invalidate(previous.getUsername());
+        }
+        byId.put(user.getId(), copy(user));
+        byUsername.put(user.getUsername(), user.getId());
+    }
+
+    /**
+     * Forgets a user; call it before every UPDATE or DELETE of their row. Inside a transaction the
+     * user is dropped again once it completes, so a read that slipped in before the commit is not kept.
+     */
+    public void evict(Long userId) {
+        if (userId == null) return;
+        drop(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop(userId);
+                }
+            });
+        }
+    }
+
+    private void drop(Long userId) {
+        User previous = byId.invalidate(userId);
+        if (previous != null) byUsername.invalidate(previous.getUsername());
+    }
+
+    public List<CacheStats> stats() {
+        return List.of(stats("users-by-id", byId), stats("users-by-username", byUsername));
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        byId.purgeExpired();
+        byUsername.purgeExpired();
+    }
+
+    private User load(Long id) {
+        return userRepository.findById(id).orElse(null);
+    }
+
+    private User copy(User user) {
+        User copy = User.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .rankPoints(user.getRankPoints())
+                .currentRank(user.getCurrentRank())
+                .gamesPlayed(user.getGamesPlayed())
+                .wins(user.getWins())
+                .losses(user.getLosses())
+                .profilePictureUrl(user.getProfilePictureUrl())
+                .build();
+        // the cached row keeps the rank it was loaded with; the index knows the current one
+        int rank = leaderboardService.rankOf(user.getId());
+        if (rank > 0) copy.setCurrentRank(rank);
+        return copy;
+    }
+
+    private static CacheStats stats(String name, BoundedCache<?, ?> cache) {
+        long hits = cache.hits();
+        long misses = cache.misses();
+        long lookups = hits + misses;
+        return new CacheStats(name, cache.size(), cache.maxSize(), hits, misses,
+                cache.evictions(), cache.expirations(), lookups == 0 ? 0.0 : (double) hits / lookups);
+    }
+}
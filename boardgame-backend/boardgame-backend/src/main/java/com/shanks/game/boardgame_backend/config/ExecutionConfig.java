@@ -0,0 +1,68 @@
+package com.shanks.game.boardgame_backend.config;
+
+import com.shanks.game.boardgame_backend.execution.ExecutionMode;
+import com.shanks.game.boardgame_backend.execution.LimitedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * app.execution.mode=virtual puts Tomcat request handling on virtual threads and caps concurrent
+ * connections with a {@link LimitedDataSource} sized to the Hikari pool. The STOMP channels are
+ * switched in {@link WebSocketConfig}. The default, platform, leaves all of it as Spring Boot sets it up.
+ */
+@Configuration
+public class ExecutionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    static final String MODE = "app.execution.mode";
+
+    static ExecutionMode mode(Environment environment) {
+        return ExecutionMode.resolve(environment.getProperty(MODE, "platform"));
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> executionModeTomcatCustomizer(Environment environment) {
+        ExecutionMode configured = ExecutionMode.parse(environment.getProperty(MODE, "platform"));
+        ExecutionMode mode = mode(environment);
+        if (configured != mode) {
+            logger.warn("Virtual threads need Java 21, running on {}; using platform threads",
+                    System.getProperty("java.version"));
+        }
+        logger.info("Execution mode: {}", mode);
+        return protocolHandler -> {
+            if (mode == ExecutionMode.VIRTUAL) {
+                protocolHandler.setExecutor(ExecutionMode.virtualExecutor("tomcat-handler-"));
+            }
+        };
+    }
+
+    // static, so that post-processing the DataSource does not need this configuration instantiated first
+    @Bean
+    public static BeanPostProcessor limitedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof LimitedDataSource
+                        || mode(environment) != ExecutionMode.VIRTUAL) {
+                    return bean;
+                }
+                int permits = environment.getProperty("app.execution.db-permits", Integer.class, 0);
+                if (permits <= 0 && bean instanceof HikariDataSource hikari) permits = hikari.getMaximumPoolSize();
+                // Hikari's own default when the pool size is left unset
+                if (permits <= 0) permits = 10;
+                long timeoutMs = environment.getProperty("app.execution.db-acquire-timeout-ms", Long.class, 30000L);
+                logger.info("Database concurrency capped at {} connections", permits);
+                return new LimitedDataSource(dataSource, permits, timeoutMs);
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.shanks.game.boardgame_backend.config;
+
+import com.shanks.game.boardgame_backend.dao.service.GameDataService;
+import com.shanks.game.boardgame_backend.session.GameLanes;
+import com.shanks.game.boardgame_backend.spectate.SpectatorHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+/** Keeps the spectators of /topic/spectate/{gameId} in step with STOMP subscriptions. */
+@Component
+public class SpectatorSubscriptionListener {
+
+    @Autowired
+    private SpectatorHub spectatorHub;
+
+    @Autowired
+    private GameDataService gameDataService;
+
+    @Autowired
+    private GameLanes lanes;
+
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long gameId = SpectatorHub.gameIdOf(accessor.getDestination());
+        if (gameId == null || accessor.getSubscriptionId() == null) return;
+
+        if (spectatorHub.subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), gameId)) {
+            // first spectator: the snapshot is read on the game's lane, not on the socket thread
+            lanes.execute(gameId, () -> gameDataService.spectatorJoined(gameId));
+        }
+    }
+
+    @EventListener
+    public void handleUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getSubscriptionId() == null) return;
+        spectatorHub.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        spectatorHub.disconnected(event.getSessionId());
+    }
+}
@@ -1,5 +1,10 @@
 package com.shanks.game.boardgame_backend.config;
+import com.shanks.game.boardgame_backend.execution.ExecutionMode;
+import com.shanks.game.boardgame_backend.spectate.SpectatorHub;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -9,6 +14,9 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private Environment environment;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
@@ -22,5 +30,26 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.enableSimpleBroker("/topic", "/queue");
         registry.setApplicationDestinationPrefixes("/app");
+        if (ExecutionConfig.mode(environment) == ExecutionMode.VIRTUAL) {
+            // with no pool to serialize them, keep each session's messages in the order they were sent
+            registry.setPreservePublishOrder(true);
+        }
+    }
+
+    // in virtual mode every inbound frame and every outbound message gets its own virtual thread,
+    // so @MessageMapping handlers waiting on the database no longer hold up other games
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (ExecutionConfig.mode(environment) == ExecutionMode.VIRTUAL) {
+            registration.executor(ExecutionMode.virtualExecutor("ws-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(SpectatorHub.deliveryInterceptor());
+        if (ExecutionConfig.mode(environment) == ExecutionMode.VIRTUAL) {
+            registration.executor(ExecutionMode.virtualExecutor("ws-outbound-"));
+        }
     }
 }
@@ -1,8 +1,8 @@
 package com.shanks.game.boardgame_backend.config;
 
+import com.shanks.game.boardgame_backend.presence.PresenceRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
@@ -12,7 +12,7 @@ import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 public class WebSocketPresenceListener {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private PresenceRegistry presenceRegistry;
 
     @EventListener
     public void handleConnect(SessionConnectedEvent event) {
@@ -21,25 +21,12 @@ public class WebSocketPresenceListener {
         if (accessor.getUser() == null) return;
 
         Long userId = Long.parseLong(accessor.getUser().getName());
-        System.out.println(userId);
 
-        messagingTemplate.convertAndSend(
-                "/topic/presence",
-                new PresenceMessage(userId, true)
-        );
+        presenceRegistry.connected(accessor.getSessionId(), userId);
     }
 
     @EventListener
     public void handleDisconnect(SessionDisconnectEvent event) {
-        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
-
-        if (accessor.getUser() == null) return;
-
-        Long userId = Long.parseLong(accessor.getUser().getName());
-
-        messagingTemplate.convertAndSend(
-                "/topic/presence",
-                new PresenceMessage(userId, false)
-        );
+        presenceRegistry.disconnected(event.getSessionId());
     }
 }
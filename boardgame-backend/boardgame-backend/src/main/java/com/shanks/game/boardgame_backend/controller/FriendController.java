@@ -2,6 +2,7 @@ package com.shanks.game.boardgame_backend.controller;
 
 import com.shanks.game.boardgame_backend.dao.service.FriendService;
 import com.shanks.game.boardgame_backend.dto.entity.Friend;
+import com.shanks.game.boardgame_backend.presence.PresenceRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/friends")
@@ -20,6 +22,9 @@ public class FriendController {
 
     @Autowired
     private FriendService friendService;
+
+    @Autowired
+    private PresenceRegistry presenceRegistry;
     private static final Logger logger = LoggerFactory.getLogger(FriendController.class);
 
 
@@ -58,6 +63,12 @@ public class FriendController {
         return friendService.getFriends(userId);
     }
 
+    // ✅ Which friends are online right now (live changes arrive on /user/queue/presence)
+    @GetMapping("/{userId}/online")
+    public List<Long> getOnlineFriends(@PathVariable Long userId) {
+        return presenceRegistry.onlineFriends(userId);
+    }
+
     // ✅ Get Pending Requests
     @GetMapping("/{userId}/pending")
     public List<Friend> getPendingRequests(@PathVariable Long userId) {
@@ -77,7 +88,13 @@ public class FriendController {
         return friendService.checkFriendshipStatus(userId, friendId);
     }
 
-    // ✅ Search Friends (by username or email)
+    // ✅ Check many statuses in one call: body is a list of user ids
+    @PostMapping("/status")
+    public Map<Long, String> checkStatuses(@RequestParam Long userId, @RequestBody List<Long> ids) {
+        return friendService.checkFriendshipStatuses(userId, ids);
+    }
+
+    // ✅ Search Friends (by username)
     @GetMapping("/search")
     public List<Friend> searchFriends(@RequestParam Long userId, @RequestParam String query) {
         return friendService.searchFriends(userId, query);
@@ -1,12 +1,34 @@
 package com.shanks.game.boardgame_backend.controller;
+import com.shanks.game.boardgame_backend.cache.UserCache;
 import com.shanks.game.boardgame_backend.dto.entity.Game;
+import com.shanks.game.boardgame_backend.dto.entity.GameData;
+import com.shanks.game.boardgame_backend.dto.view.BookMove;
+import com.shanks.game.boardgame_backend.dto.view.BotStats;
+import com.shanks.game.boardgame_backend.dto.view.GameHistoryPage;
+import com.shanks.game.boardgame_backend.dto.view.LaneStats;
+import com.shanks.game.boardgame_backend.dto.view.PositionView;
+import com.shanks.game.boardgame_backend.dto.view.SpectateStats;
+import com.shanks.game.boardgame_backend.dto.view.TablebaseProbe;
 import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.dao.service.BotService;
+import com.shanks.game.boardgame_backend.dao.service.GameDataService;
+import com.shanks.game.boardgame_backend.dao.service.GameReplayService;
 import com.shanks.game.boardgame_backend.dao.service.GameService;
-import com.shanks.game.boardgame_backend.dao.repository.UserRepository;
+import com.shanks.game.boardgame_backend.dao.service.OpeningBookService;
+import com.shanks.game.boardgame_backend.dao.service.TablebaseService;
+import com.shanks.game.boardgame_backend.matchmaking.MatchTicket;
+import com.shanks.game.boardgame_backend.matchmaking.Matchmaker;
+import com.shanks.game.boardgame_backend.session.GameLanes;
+import com.shanks.game.boardgame_backend.spectate.SpectatorHub;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
@@ -17,22 +39,52 @@ public class GameController {
     private GameService gameService;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserCache userCache;
 
+    @Autowired
+    private GameDataService gameDataService;
+
+    @Autowired
+    private GameReplayService gameReplayService;
+
+    @Autowired
+    private Matchmaker matchmaker;
+
+    @Autowired
+    private BotService botService;
+
+    @Autowired
+    private TablebaseService tablebaseService;
+
+    @Autowired
+    private OpeningBookService openingBookService;
+
+    @Autowired
+    private GameLanes gameLanes;
+
+    @Autowired
+    private SpectatorHub spectatorHub;
+
+    @Value("${app.matchmaking.wait-timeout-ms:30000}")
+    private long matchWaitTimeoutMs;
 
 
     @PostMapping("/create")
     public Game createGame(@RequestParam Long player1Id, @RequestParam Long player2Id) {
-        User player1 = userRepository.findById(player1Id)
+        User player1 = userCache.findById(player1Id)
                 .orElseThrow(() -> new RuntimeException("Player1 not found"));
-        User player2 = userRepository.findById(player2Id)
+        User player2 = userCache.findById(player2Id)
                 .orElseThrow(() -> new RuntimeException("Player2 not found"));
         return gameService.createGame(player1, player2);
     }
 
+    // history newest first, one keyset page at a time; status = WAITING, IN_PROGRESS or FINISHED
     @GetMapping("/user/{userId}")
-    public List<Game> getUserGames(@PathVariable Long userId) {
-        return gameService.getGamesByUser(userId);
+    public GameHistoryPage getUserGames(@PathVariable Long userId,
+                                        @RequestParam(required = false) Long before,
+                                        @RequestParam(required = false) String status,
+                                        @RequestParam(defaultValue = "20") int size) {
+        return gameService.getHistory(userId, before, status, size);
     }
 
     @PutMapping("/{gameId}/status")
@@ -45,36 +97,98 @@ public class GameController {
                         @RequestParam Long winnerId,
                         @RequestParam Long loserId) {
 
-        User winner = userRepository.findById(winnerId)
+        User winner = userCache.findById(winnerId)
                 .orElseThrow(() -> new RuntimeException("Winner not found"));
-        User loser = userRepository.findById(loserId)
+        User loser = userCache.findById(loserId)
                 .orElseThrow(() -> new RuntimeException("Loser not found"));
 
-        return gameService.endGame(gameId, winner, loser);
+        Game game = gameService.endGame(gameId, winner, loser);
+        gameDataService.gameEnded(game);
+        return game;
     }
 
+    // board as JSON for debugging and REST clients; moves themselves go over the socket
+    @GetMapping("/{gameId}/data")
+    public GameData getGameData(@PathVariable Long gameId) {
+        return gameDataService.getGameData(gameId);
+    }
+
+    // board after move number ply (0 = initial), rebuilt from the move log
+    @GetMapping("/{gameId}/replay")
+    public PositionView replay(@PathVariable Long gameId, @RequestParam(required = false) Integer ply) {
+        int target = ply != null ? ply : gameReplayService.lastPly(gameId);
+        return new PositionView(gameId, target, gameReplayService.replay(gameId, target));
+    }
+
+    // endgame result of the current position, from the tablebase when it covers it
+    @GetMapping("/{gameId}/tablebase")
+    public TablebaseProbe tablebase(@PathVariable Long gameId) {
+        return tablebaseService.probe(gameId);
+    }
+
+    // opening book move for the current position, while the game is still in the book
+    @GetMapping("/{gameId}/book")
+    public BookMove bookMove(@PathVariable Long gameId) {
+        return openingBookService.suggest(gameId);
+    }
+
+    // ✅ Single player: a new game against the bot, the player moves first as red
+    @PostMapping("/bot")
+    public Game playBot(@RequestParam Long userId) {
+        return botService.startGame(userId);
+    }
+
+    // ✅ Bot takes the free player2 seat of a waiting game
+    @PostMapping("/{gameId}/bot")
+    public Game addBot(@PathVariable Long gameId) {
+        return botService.join(gameId);
+    }
+
+    @GetMapping("/bot/stats")
+    public BotStats botStats() {
+        return botService.stats();
+    }
+
+    // ✅ How many are watching on /topic/spectate/{gameId}
+    @GetMapping("/{gameId}/spectators")
+    public int spectators(@PathVariable Long gameId) {
+        return spectatorHub.count(gameId);
+    }
+
+    @GetMapping("/spectate/stats")
+    public SpectateStats spectateStats() {
+        return spectatorHub.stats();
+    }
+
+    // ✅ Queue depth of every game lane
+    @GetMapping("/lanes/stats")
+    public List<LaneStats> laneStats() {
+        return gameLanes.stats();
+    }
+
+    // Queues the player and answers once an opponent is found with the new IN_PROGRESS game;
+    // 408 (and out of the queue) when nobody turned up in time
     @PostMapping("/find-or-create")
-    public Game findOrCreateGame(@RequestParam Long userId) {
-        User player = userRepository.findById(userId)
+    public DeferredResult<ResponseEntity<Game>> findOrCreateGame(@RequestParam Long userId) {
+        User player = userCache.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Find any waiting game
-        Game waitingGame = gameService.findWaitingGame();
-        Game game;
-
-        // ✅ Prevent same user from joining their own game
-        if (waitingGame != null && !waitingGame.getPlayer1().getId().equals(userId)) {
-            waitingGame.setPlayer2(player);
-            waitingGame.setStatus("IN_PROGRESS");
-            game = gameService.save(waitingGame);
-        } else {
-            Game newGame = new Game();
-            newGame.setPlayer1(player);
-            newGame.setStatus("WAITING");
-            game = gameService.save(newGame);
-        }
-
-        return game;
+        MatchTicket ticket = matchmaker.enqueue(player);
+        DeferredResult<ResponseEntity<Game>> result = new DeferredResult<>(matchWaitTimeoutMs);
+        ticket.result().thenAccept(game -> result.setResult(ResponseEntity.ok(game)));
+        result.onTimeout(() -> {
+            if (matchmaker.cancel(userId)) {
+                result.setResult(ResponseEntity.status(HttpStatus.REQUEST_TIMEOUT).build());
+                return;
+            }
+            // paired at the last moment: the game is being created right now
+            try {
+                result.setResult(ResponseEntity.ok(ticket.result().get(5, TimeUnit.SECONDS)));
+            } catch (Exception e) {
+                result.setResult(ResponseEntity.status(HttpStatus.REQUEST_TIMEOUT).build());
+            }
+        });
+        return result;
     }
 
 
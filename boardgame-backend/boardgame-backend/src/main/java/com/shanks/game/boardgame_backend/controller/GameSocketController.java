@@ -5,13 +5,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shanks.game.boardgame_backend.dao.service.GameDataService;
 import com.shanks.game.boardgame_backend.dto.entity.Game;
 import com.shanks.game.boardgame_backend.dao.service.GameService;
-import com.shanks.game.boardgame_backend.dto.entity.GameData;
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.session.GameLanes;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
+
+/**
+ * STOMP handlers of a game. Each one only parses its frame on the inbound channel and hands the work to
+ * the game's lane, so messages for one game are handled strictly in arrival order.
+ */
 @Controller
 public class GameSocketController {
 
@@ -24,6 +32,9 @@ public class GameSocketController {
     @Autowired
     private GameDataService gameDataService;
 
+    @Autowired
+    private GameLanes lanes;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -31,31 +42,59 @@ public class GameSocketController {
      */
     @MessageMapping("/game/{gameId}/join")
     public void joinGame(@DestinationVariable Long gameId, String username) {
-        Game game = gameService.playerJoin(gameId, username);
-        messagingTemplate.convertAndSend("/topic/game/" + gameId, game);
+        lanes.execute(gameId, () -> {
+            Game game = gameService.playerJoin(gameId, username);
+            // seats go out as a STATUS event followed by a full SNAPSHOT of the board
+            gameDataService.playerJoined(game);
+        });
+    }
+
+    /**
+     * Full board on request, sent only to the asking user on /user/queue/game/{gameId}
+     */
+    @MessageMapping("/game/{gameId}/snapshot")
+    public void requestSnapshot(@DestinationVariable Long gameId, Principal principal) {
+        String user = principal.getName();
+        lanes.execute(gameId, () -> gameDataService.sendSnapshot(gameId, user));
     }
 
     /**
-     * Handle player moves (sent as a string)
+     * Reconnected client catching up: payload is the last seq it saw, as a number or {"lastSeq":n}.
+     * The missed events (or a STATUS and SNAPSHOT when they are too old) go to /user/queue/game/{gameId}.
+     */
+    @MessageMapping("/game/{gameId}/resume")
+    public void resume(@DestinationVariable Long gameId, String payload, Principal principal) {
+        long lastSeq;
+        try {
+            JsonNode node = objectMapper.readTree(payload);
+            lastSeq = node.isObject() ? node.path("lastSeq").asLong(-1) : node.asLong(-1);
+        } catch (Exception ex) {
+            lastSeq = -1;
+        }
+        String user = principal.getName();
+        // -1 is never buffered, so an unreadable payload gets a snapshot
+        long from = lastSeq;
+        lanes.execute(gameId, () -> gameDataService.resume(gameId, from, user));
+    }
+
+    /**
+     * Handle player moves (sent as a string).
+     * Only the move travels over the wire; the server owns the board.
      */
     @MessageMapping("/game/{gameId}/move")
     public void handleMove(@DestinationVariable Long gameId, String payload) {
         try {
-            // payload expected: {"playerId":123, "board": {...}, "turn":"blue"}
+            // payload expected: {"playerId":123, "fromRow":6, "fromCol":0, "toRow":5, "toCol":0}
+            // or for crystals: {"playerId":123, "type":"ACTIVATE", "row":4, "col":3}
             JsonNode node = objectMapper.readTree(payload);
             Long playerId = node.has("playerId") ? node.get("playerId").asLong() : null;
-            JsonNode boardNode = node.get("board");
-            String turn = node.has("turn") ? node.get("turn").asText() : null;
-            if (playerId == null || boardNode == null) {
+            if (playerId == null) {
                 throw new RuntimeException("Invalid move payload");
             }
-            String boardJson = objectMapper.writeValueAsString(boardNode);
+            int move = parseMove(node);
 
             // process and broadcast (service will broadcast)
-            GameData updated = gameDataService.processSocketMove(gameId, playerId, boardJson, turn);
-
-            // (Optional) also send to topic if service didn't
-            // messagingTemplate.convertAndSend("/topic/game/" + gameId, updated);
+            lanes.execute(gameId, () -> gameDataService.processSocketMove(gameId, playerId, move));
 
         } catch (Exception ex) {
             // log exception; consider sending a user-facing error message
@@ -63,11 +102,33 @@ public class GameSocketController {
         }
     }
 
+    static int parseMove(JsonNode node) {
+        String type = node.has("type") ? node.get("type").asText() : "MOVE";
+        if ("ACTIVATE".equalsIgnoreCase(type)) {
+            return Move.activate(cell(node, "row", "col"));
+        }
+        int from = cell(node, "fromRow", "fromCol");
+        int to = cell(node, "toRow", "toCol");
+        return Move.step(from, to);
+    }
+
+    private static int cell(JsonNode node, String rowField, String colField) {
+        if (!node.has(rowField) || !node.has(colField)) {
+            throw new RuntimeException("Invalid move payload");
+        }
+        int row = node.get(rowField).asInt(-1);
+        int col = node.get(colField).asInt(-1);
+        if (row < 0 || row >= Board.SIZE || col < 0 || col >= Board.SIZE) {
+            throw new RuntimeException("Move outside the board");
+        }
+        return Board.square(row, col);
+    }
+
 
 
     @MessageMapping("/game/{gameId}/chat")
-    public void handleChat(@DestinationVariable String gameId, String messageJson) {
-        messagingTemplate.convertAndSend("/topic/game/" + gameId, messageJson);
+    public void handleChat(@DestinationVariable Long gameId, String messageJson) {
+        lanes.execute(gameId, () -> messagingTemplate.convertAndSend("/topic/game/" + gameId, messageJson));
     }
 
 
@@ -76,7 +137,9 @@ public class GameSocketController {
      */
     @MessageMapping("/game/{gameId}/end")
     public void endGame(@DestinationVariable Long gameId, String winnerUsername) {
-        Game endedGame = gameService.endGameSocket(gameId, winnerUsername);
-        messagingTemplate.convertAndSend("/topic/game/" + gameId, endedGame);
+        lanes.execute(gameId, () -> {
+            Game endedGame = gameService.endGameSocket(gameId, winnerUsername);
+            gameDataService.gameEnded(endedGame);
+        });
     }
 }
@@ -0,0 +1,28 @@
+package com.shanks.game.boardgame_backend.controller;
+
+import com.shanks.game.boardgame_backend.dao.service.LeaderboardService;
+import com.shanks.game.boardgame_backend.dto.view.LeaderboardPage;
+import com.shanks.game.boardgame_backend.ranking.RankIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+public class LeaderboardController {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    // ✅ Ranked players, best first
+    @GetMapping
+    public LeaderboardPage getLeaderboard(@RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(defaultValue = "20") int size) {
+        return leaderboardService.page(page, size);
+    }
+
+    // ✅ One player's position
+    @GetMapping("/{userId}")
+    public RankIndex.Entry getRank(@PathVariable Long userId) {
+        return leaderboardService.entry(userId);
+    }
+}
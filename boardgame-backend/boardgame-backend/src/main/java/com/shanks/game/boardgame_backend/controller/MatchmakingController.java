@@ -0,0 +1,42 @@
+package com.shanks.game.boardgame_backend.controller;
+
+import com.shanks.game.boardgame_backend.cache.UserCache;
+import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.dto.view.MatchStatus;
+import com.shanks.game.boardgame_backend.matchmaking.MatchTicket;
+import com.shanks.game.boardgame_backend.matchmaking.Matchmaker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/matchmaking")
+public class MatchmakingController {
+
+    @Autowired
+    private Matchmaker matchmaker;
+
+    @Autowired
+    private UserCache userCache;
+
+    // ✅ Join the queue; the match arrives on /user/queue/match
+    @PostMapping("/queue")
+    public MatchStatus join(@RequestParam Long userId) {
+        User player = userCache.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        MatchTicket ticket = matchmaker.enqueue(player);
+        return MatchStatus.queued(ticket);
+    }
+
+    // ✅ Leave the queue
+    @DeleteMapping("/queue")
+    public MatchStatus leave(@RequestParam Long userId) {
+        matchmaker.cancel(userId);
+        return matchmaker.status(userId);
+    }
+
+    @GetMapping("/{userId}")
+    public MatchStatus status(@PathVariable Long userId) {
+        return matchmaker.status(userId);
+    }
+}
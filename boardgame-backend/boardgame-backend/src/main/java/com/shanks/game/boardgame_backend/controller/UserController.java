@@ -3,23 +3,29 @@ package com.shanks.game.boardgame_backend.controller;
 
 import com.shanks.game.boardgame_backend.dao.service.UserService;
 import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.dto.view.CacheStats;
+import com.shanks.game.boardgame_backend.dto.view.UserPage;
+import com.shanks.game.boardgame_backend.dto.view.UserSearchPage;
+import com.shanks.game.boardgame_backend.images.ImageStore;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +36,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ImageStore imageStore;
+
     // ✅ Register User
     @PostMapping("/register")
     public User registerUser(@RequestBody User user) {
@@ -42,10 +51,21 @@ public class UserController {
         return userService.loginUser(email, password);
     }
 
-    // ✅ Get All Users
+    // ✅ List Users: keyset pages of public columns; pass nextCursor back as after
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public UserPage listUsers(@RequestParam(required = false) Long after,
+                              @RequestParam(defaultValue = "50") int size) {
+        return userService.listUsers(after, size);
+    }
+
+    // ✅ Export all users as NDJSON, streamed batch by batch
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = userService::exportUsers;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .body(body);
     }
 
     // ✅ Get User by ID
@@ -87,46 +107,80 @@ public class UserController {
         return "User deleted successfully";
     }
 
+    // ✅ Hit/miss counters of the user cache
+    @GetMapping("/cache/stats")
+    public List<CacheStats> cacheStats() {
+        return userService.cacheStats();
+    }
+
     @GetMapping("/search")
     public List<User> searchUsers(@RequestParam String username) {
         return userService.searchUsers(username);
     }
 
-    @PutMapping("/{id}/profile-picture")
+    // ✅ Ranked username suggestions while typing; friendsOnly keeps the caller's friends
+    @GetMapping("/autocomplete")
+    public UserSearchPage autocomplete(@RequestParam String query,
+                                       @RequestParam(defaultValue = "0") int page,
+                                       @RequestParam(defaultValue = "10") int size,
+                                       @RequestParam(required = false) Long userId,
+                                       @RequestParam(defaultValue = "false") boolean friendsOnly) {
+        return userService.autocomplete(query, page, size, userId, friendsOnly);
+    }
+
+    // ✅ Multipart upload; the part is spooled to disk by the container and streamed into the image store
+    @PutMapping(value = "/{id}/profile-picture", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<User> updateProfilePicture(
             @PathVariable Long id,
             @RequestParam("file") MultipartFile file) {
-        try {
-            Path folder = Paths.get("src/main/resources/static/pfp/");
-            Files.createDirectories(folder);
-
-            // ✅ Fixed filename per user
-            String fileName = "user_" + id + ".jpg";
-            Path filePath = folder.resolve(fileName);
-
-            // ✅ Overwrite old file
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // ✅ Save URL in DB
-            String url = "/pfp/" + fileName;
-            User updatedUser = userService.updateProfilePicture(id, url);
-
-            return ResponseEntity.ok(updatedUser);
+        try (InputStream in = file.getInputStream()) {
+            return storeProfilePicture(id, in);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
+    // ✅ Raw image body (Content-Type image/jpeg, image/png or image/gif), streamed straight from the socket
+    @PutMapping(value = "/{id}/profile-picture", consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_GIF_VALUE})
+    public ResponseEntity<User> uploadProfilePicture(@PathVariable Long id, HttpServletRequest request) {
+        try (InputStream in = request.getInputStream()) {
+            return storeProfilePicture(id, in);
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    private ResponseEntity<User> storeProfilePicture(Long id, InputStream in) throws IOException {
+        userService.getUserById(id); // 404s before the upload is read
+        try {
+            // ✅ Same bytes, same hash: the URL is immutable and duplicates are stored once
+            String hash = imageStore.store(in);
+            return ResponseEntity.ok(userService.updateProfilePicture(id, ImageStore.url(hash)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
-    // --- Get profile picture URL endpoint
+
+    // --- Profile picture of a user: redirects to the immutable image URL (size = small, medium or original)
     @GetMapping("/{userId}/profile-picture")
-    public ResponseEntity<Resource> getProfilePicture(@PathVariable Long userId) {
+    public ResponseEntity<Resource> getProfilePicture(@PathVariable Long userId,
+                                                      @RequestParam(required = false) String size) {
         try {
             // Get the profile picture URL from your service
             String profilePicUrl = userService.getProfilePictureUrl(userId);
 
-            // Extract just the filename from the URL (remove base URL)
+            String hash = ImageStore.hashOf(profilePicUrl);
+            if (hash != null) {
+                ImageStore.Variant variant = ImageStore.Variant.parse(size);
+                // the user may change picture, the image behind the target never changes
+                return ResponseEntity.status(HttpStatus.FOUND)
+                        .header(HttpHeaders.LOCATION, ImageStore.url(hash, variant))
+                        .cacheControl(CacheControl.noCache())
+                        .build();
+            }
+
+            // legacy uploads kept under static/pfp
             String filename = profilePicUrl.replaceFirst(".*/pfp/", "");
             Path filePath = Paths.get("src/main/resources/static/pfp/").resolve(filename);
 
@@ -136,12 +190,12 @@ public class UserController {
                 throw new RuntimeException("File not found");
             }
 
-            // Set proper content type
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) contentType = "application/octet-stream";
+            // content type from the extension, no probing on every request
+            MediaType contentType = MediaTypeFactory.getMediaType(filename)
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
 
             return ResponseEntity.ok()
-                    .header("Content-Type", contentType)
+                    .contentType(contentType)
                     .body(resource);
 
         } catch (Exception e) {
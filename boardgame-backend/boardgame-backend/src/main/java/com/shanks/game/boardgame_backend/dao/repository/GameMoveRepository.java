@@ -0,0 +1,15 @@
+package com.shanks.game.boardgame_backend.dao.repository;
+
+import com.shanks.game.boardgame_backend.dto.entity.GameMove;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface GameMoveRepository extends JpaRepository<GameMove, GameMove.Key> {
+    List<GameMove> findByGameIdAndPlyBetweenOrderByPlyAsc(Long gameId, int fromPly, int toPly);
+
+    @Query("SELECT COALESCE(MAX(m.ply), 0) FROM GameMove m WHERE m.gameId = :gameId")
+    int findLastPly(@Param("gameId") Long gameId);
+}
@@ -2,11 +2,42 @@ package com.shanks.game.boardgame_backend.dao.repository;
 
 
 import com.shanks.game.boardgame_backend.dto.entity.Game;
+import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.dto.view.GameSummaryRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.List;
 
 public interface GameRepository extends JpaRepository<Game, Long> {
-    List<Game> findByPlayer1IdOrPlayer2Id(Long player1Id, Long player2Id);
     Game findFirstByStatus(String status);
 
+    // only the first ending of a game counts: 0 when it was already finished (or does not exist)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Game g SET g.winner = :winner, g.status = 'FINISHED' " +
+            "WHERE g.id = :id AND (g.status IS NULL OR g.status <> 'FINISHED')")
+    int finish(@Param("id") Long id, @Param("winner") User winner);
+
+    // each branch seeks one of the (playerN_id, id) indexes and stops after :limit rows,
+    // then the newest :limit of both are joined once to the opponent's name
+    @Query(value = "SELECT h.id AS id, h.status AS status, h.created_at AS createdAt, " +
+            "h.opponent_id AS opponentId, u.username AS opponentUsername, h.winner_id AS winnerId " +
+            "FROM (" +
+            "(SELECT g.id, g.status, g.created_at, g.player2_id AS opponent_id, g.winner_id FROM game g " +
+            "WHERE g.player1_id = :userId AND g.id < :before AND (:status IS NULL OR g.status = :status) " +
+            "ORDER BY g.id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT g.id, g.status, g.created_at, g.player1_id AS opponent_id, g.winner_id FROM game g " +
+            "WHERE g.player2_id = :userId AND g.player1_id <> :userId AND g.id < :before " +
+            "AND (:status IS NULL OR g.status = :status) " +
+            "ORDER BY g.id DESC LIMIT :limit)" +
+            ") h LEFT JOIN users u ON u.id = h.opponent_id " +
+            "ORDER BY h.id DESC LIMIT :limit", nativeQuery = true)
+    List<GameSummaryRow> findHistory(@Param("userId") Long userId, @Param("before") long before,
+                                     @Param("status") String status, @Param("limit") int limit);
+
 }
@@ -0,0 +1,11 @@
+package com.shanks.game.boardgame_backend.dao.repository;
+
+import com.shanks.game.boardgame_backend.dto.entity.GameMove;
+import com.shanks.game.boardgame_backend.dto.entity.GameSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface GameSnapshotRepository extends JpaRepository<GameSnapshot, GameMove.Key> {
+    Optional<GameSnapshot> findTopByGameIdAndPlyLessThanEqualOrderByPlyDesc(Long gameId, int ply);
+}
@@ -1,9 +1,17 @@
 package com.shanks.game.boardgame_backend.dao.repository;
 
 import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.dto.view.UserRankRow;
+import com.shanks.game.boardgame_backend.dto.view.UserSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,7 +21,43 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
-    List<User> findByUsernameContainingIgnoreCase(String username);
 
     List<User> findAllByOrderByRankPointsDesc();
+
+    @Query("SELECT u.id AS id, u.username AS username, u.rankPoints AS rankPoints FROM User u")
+    List<UserRankRow> findAllRankRows();
+
+    List<UserRankRow> findRankRowsByIdIn(Collection<Long> ids);
+
+    // keyset page: seeks on the primary key, so page 10 000 costs the same as page 1
+    @Query("SELECT new com.shanks.game.boardgame_backend.dto.view.UserSummary(" +
+            "u.id, u.username, u.rankPoints, u.currentRank, u.profilePictureUrl) " +
+            "FROM User u WHERE u.id > :after ORDER BY u.id")
+    List<UserSummary> findSummariesAfter(@Param("after") long after, Limit limit);
+
+    // counters are bumped in place, so concurrent game endings never overwrite each other
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE User u SET u.wins = u.wins + 1, u.gamesPlayed = u.gamesPlayed + 1, " +
+            "u.rankPoints = u.rankPoints + :points WHERE u.id = :id")
+    int recordWin(@Param("id") Long id, @Param("points") int points);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE User u SET u.losses = u.losses + 1, u.gamesPlayed = u.gamesPlayed + 1, " +
+            "u.rankPoints = GREATEST(0, u.rankPoints - :points) WHERE u.id = :id")
+    int recordLoss(@Param("id") Long id, @Param("points") int points);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE User u SET u.rankPoints = GREATEST(0, u.rankPoints + :delta) WHERE u.id = :id")
+    int addRankPoints(@Param("id") Long id, @Param("delta") int delta);
+
+    // same ranks as the leaderboard index: equal points share a rank
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users u JOIN " +
+            "(SELECT id, RANK() OVER (ORDER BY rank_points DESC) AS pos FROM users) r ON r.id = u.id " +
+            "SET u.current_rank = r.pos", nativeQuery = true)
+    int recomputeRanks();
 }
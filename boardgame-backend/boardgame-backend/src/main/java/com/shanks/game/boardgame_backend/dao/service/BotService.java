@@ -0,0 +1,225 @@
+package com.shanks.game.boardgame_backend.dao.service;
+
+import com.shanks.game.boardgame_backend.cache.UserCache;
+import com.shanks.game.boardgame_backend.dao.repository.GameRepository;
+import com.shanks.game.boardgame_backend.dao.repository.UserRepository;
+import com.shanks.game.boardgame_backend.dto.entity.Game;
+import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.dto.view.BotStats;
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.engine.PositionCache;
+import com.shanks.game.boardgame_backend.engine.Rules;
+import com.shanks.game.boardgame_backend.search.Search;
+import com.shanks.game.boardgame_backend.search.SearchResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The computer opponent. It is an ordinary user that sits in player2's seat; whenever it is its turn
+ * the position is searched off the game's mailbox and the move comes back through the normal move path.
+ * Searches run one at a time, each using every search thread.
+ */
+@Service
+public class BotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BotService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameDataService gameDataService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OpeningBookService openingBookService;
+
+    @Value("${app.bot.username:CrysBot}")
+    private String username;
+
+    @Value("${app.bot.threads:0}")
+    private int threads;
+
+    @Value("${app.bot.move-time-ms:1000}")
+    private long moveTimeMs;
+
+    @Value("${app.bot.max-depth:32}")
+    private int maxDepth;
+
+    @Value("${app.bot.tt-size-mb:64}")
+    private int tableMegabytes;
+
+    @Value("${app.bot.result-cache-size:65536}")
+    private int resultCacheSize;
+
+    private Search search;
+    // finished searches by position key; the bot answers a position it has already searched at once
+    private PositionCache<SearchResult> results;
+    private ExecutorService searches;
+    private volatile Long botId;
+    // whether botId reflects the database; until the account exists no game can have the bot in it
+    private volatile boolean resolved;
+
+    private final AtomicLong searchCount = new AtomicLong();
+    private final AtomicLong nodeCount = new AtomicLong();
+    private final AtomicLong searchMs = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong bookMoves = new AtomicLong();
+    private volatile SearchResult lastResult;
+
+    @PostConstruct
+    void init() {
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        search = new Search(n, tableMegabytes);
+        results = new PositionCache<>(resultCacheSize);
+        searches = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "bot-search");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        searches.shutdownNow();
+        search.close();
+    }
+
+    /** The bot's account, created on first use. */
+    public User botUser() {
+        User bot = userRepository.findByUsername(username).orElseGet(this::registerBot);
+        botId = bot.getId();
+        resolved = true;
+        return bot;
+    }
+
+    // registered like any other user, so the leaderboard, the user cache and username search all know it
+    private User registerBot() {
+        try {
+            return userService.registerUser(User.builder()
+                    .username(username)
+                    .email(username.toLowerCase() + "@bot.cryschess")
+                    .password(UUID.randomUUID().toString())
+                    .build());
+        } catch (IllegalArgumentException e) {
+            // another request registered it first
+            return userRepository.findByUsername(username).orElseThrow(() -> e);
+        }
+    }
+
+    public boolean isBot(Long userId) {
+        if (userId == null) return false;
+        if (!resolved) {
+            userRepository.findByUsername(username).ifPresent(u -> botId = u.getId());
+            resolved = true;
+        }
+        return userId.equals(botId);
+    }
+
+    /** A new game against the bot; the player moves first as red. */
+    public Game startGame(Long userId) {
+        User player = userCache.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Game game = gameRepository.save(Game.builder()
+                .player1(player)
+                .player2(botUser())
+                .status("IN_PROGRESS")
+                .boardState("{}")
+                .build());
+        gameDataService.playerJoined(game);
+        return game;
+    }
+
+    /** Seats the bot as player2 of a game still waiting for an opponent. */
+    public Game join(Long gameId) {
+        Game game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new RuntimeException("Game not found"));
+        if (game.getPlayer2() != null || !"WAITING".equals(game.getStatus())) {
+            throw new RuntimeException("Game is not waiting for a player");
+        }
+        game.setPlayer2(botUser());
+        game.setStatus("IN_PROGRESS");
+        Game saved = gameRepository.save(game);
+        gameDataService.playerJoined(saved);
+        return saved;
+    }
+
+    /**
+     * Searches the position in the background and plays the answer in the game. history is the game's
+     * positions since its last irreversible move, so the bot neither walks into nor misses a repetition draw.
+     */
+    public void requestMove(Long gameId, Long playerId, Board position, long[] history) {
+        Board root = position.copy();
+        int bookMove = openingBookService.move(root);
+        if (bookMove != Move.NONE) {
+            bookMoves.incrementAndGet();
+            gameDataService.processSocketMove(gameId, playerId, bookMove);
+            return;
+        }
+        searches.execute(() -> {
+            try {
+                SearchResult result = cached(root, history);
+                if (result == null) {
+                    result = search.search(root, history, moveTimeMs, maxDepth);
+                    record(result);
+                    // a result that depended on the game's earlier positions is not reusable elsewhere
+                    if (history.length <= 1) results.put(root.hash(), result);
+                }
+                logger.debug("Bot in game {}: {}", gameId, result);
+                if (result.bestMove() == Move.NONE) {
+                    logger.warn("Bot has no legal move in game {}", gameId);
+                    return;
+                }
+                gameDataService.processSocketMove(gameId, playerId, result.bestMove());
+            } catch (RuntimeException e) {
+                logger.warn("Bot move failed in game {}: {}", gameId, e.getMessage());
+            }
+        });
+    }
+
+    private SearchResult cached(Board root, long[] history) {
+        if (history.length > 1) return null;
+        SearchResult result = results.get(root.hash());
+        if (result == null || !Rules.isLegal(root, result.bestMove())) return null;
+        cacheHits.incrementAndGet();
+        return result;
+    }
+
+    private void record(SearchResult result) {
+        searchCount.incrementAndGet();
+        nodeCount.addAndGet(result.nodes());
+        searchMs.addAndGet(result.elapsedMs());
+        lastResult = result;
+    }
+
+    public BotStats stats() {
+        SearchResult last = lastResult;
+        long ms = searchMs.get();
+        long nodes = nodeCount.get();
+        return new BotStats(search.getThreads(), moveTimeMs, searchCount.get(), nodes,
+                ms == 0 ? 0 : nodes * 1000 / ms,
+                last != null ? last.depth() : 0,
+                last != null ? last.nps() : 0,
+                cacheHits.get(),
+                bookMoves.get());
+    }
+}
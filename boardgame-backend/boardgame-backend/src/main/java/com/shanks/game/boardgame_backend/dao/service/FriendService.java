@@ -2,12 +2,15 @@ package com.shanks.game.boardgame_backend.dao.service;
 
 import com.shanks.game.boardgame_backend.dao.repository.FriendRepository;
 import com.shanks.game.boardgame_backend.dto.entity.Friend;
+import com.shanks.game.boardgame_backend.friends.FriendGraph;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class FriendService {
@@ -15,11 +18,15 @@ public class FriendService {
     @Autowired
     private FriendRepository friendRepository;
 
+    @Autowired
+    private FriendGraph friendGraph;
+
+    @Autowired
+    private UserSearchService userSearchService;
+
     // ✅ Send Friend Request
     public Friend sendRequest(Long userId, Long friendId) {
-        Optional<Friend> existing = friendRepository.findByUserIdAndFriendId(userId, friendId);
-        Optional<Friend> reverse = friendRepository.findByUserIdAndFriendId(friendId, userId);
-        if (existing.isPresent() || reverse.isPresent()) {
+        if (!FriendGraph.NOT_FRIENDS.equals(friendGraph.status(userId, friendId))) {
             throw new RuntimeException("Friend request already exists or you are already friends");
         }
 
@@ -29,7 +36,9 @@ public class FriendService {
                 .status("PENDING")
                 .build();
 
-        return friendRepository.save(request);
+        Friend saved = friendRepository.save(request);
+        friendGraph.invalidate(userId, friendId);
+        return saved;
     }
 
     // ✅ Accept Friend Request
@@ -49,6 +58,7 @@ public class FriendService {
                     .build();
             friendRepository.save(reverse);
         }
+        friendGraph.invalidate(request.getUserId(), request.getFriendId());
 
         return request;
     }
@@ -59,42 +69,56 @@ public class FriendService {
         Friend request = friendRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
         request.setStatus("REJECTED");
-        return friendRepository.save(request); // return the updated Friend
+        Friend saved = friendRepository.save(request); // return the updated Friend
+        friendGraph.invalidate(request.getUserId(), request.getFriendId());
+        return saved;
     }
 
 
     // ✅ View All Friends of a User (both directions)
     public List<Friend> getFriends(Long userId) {
-        return friendRepository.findAllFriendsForUser(userId);
+        return friendGraph.of(userId).rows("ACCEPTED", true, true);
+    }
+
+    // ✅ Ids of a user's accepted friends
+    public Set<Long> getFriendIds(Long userId) {
+        return friendGraph.of(userId).friendIds();
     }
 
     // ✅ View Pending Requests (for a user)
     public List<Friend> getPendingRequests(Long userId) {
-        List<Friend> incoming = friendRepository.findByFriendIdAndStatus(userId, "PENDING");
-        List<Friend> outgoing = friendRepository.findByUserIdAndStatus(userId, "PENDING");
-
-        List<Friend> all = new ArrayList<>();
-        all.addAll(incoming);
-        all.addAll(outgoing);
-        return all;
+        // incoming first, then outgoing
+        return friendGraph.of(userId).rows("PENDING", true, true);
     }
 
     // ✅ Remove Friend (both directions)
     public void removeFriend(Long userId, Long friendId) {
         friendRepository.deleteFriendship(userId, friendId);
+        friendGraph.invalidate(userId, friendId);
     }
 
     // ✅ Check Friendship Status (now both directions)
     public String checkFriendshipStatus(Long userId, Long friendId) {
-        return friendRepository.findByUserIdAndFriendId(userId, friendId)
-                .map(Friend::getStatus)
-                .orElseGet(() -> friendRepository.findByUserIdAndFriendId(friendId, userId)
-                        .map(Friend::getStatus)
-                        .orElse("NOT_FRIENDS"));
+        return friendGraph.status(userId, friendId);
     }
 
-    // ✅ Search Friends by Username or Email
+    // ✅ Statuses with many users at once (profile and search pages)
+    public Map<Long, String> checkFriendshipStatuses(Long userId, List<Long> otherIds) {
+        return friendGraph.statuses(userId, otherIds);
+    }
+
+    // ✅ Search Friends by username, best matches first
     public List<Friend> searchFriends(Long userId, String query) {
-        return friendRepository.findByUserIdAndStatusContaining(userId, query);
+        // one row per friend, the one this user sent when both directions exist
+        FriendGraph.Adjacency adjacency = friendGraph.of(userId);
+        Map<Long, Friend> rowByFriend = new LinkedHashMap<>();
+        for (Friend f : adjacency.rows("ACCEPTED", true, false)) rowByFriend.putIfAbsent(f.getFriendId(), f);
+        for (Friend f : adjacency.rows("ACCEPTED", false, true)) rowByFriend.putIfAbsent(f.getUserId(), f);
+
+        List<Friend> out = new ArrayList<>();
+        for (Long friendId : userSearchService.matchingIds(query, rowByFriend.keySet())) {
+            out.add(rowByFriend.get(friendId));
+        }
+        return out;
     }
 }
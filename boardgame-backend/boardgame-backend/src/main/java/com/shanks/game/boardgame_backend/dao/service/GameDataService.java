@@ -2,21 +2,46 @@ package com.shanks.game.boardgame_backend.dao.service;
 
 import com.shanks.game.boardgame_backend.dto.entity.Game;
 import com.shanks.game.boardgame_backend.dto.entity.GameData;
+import com.shanks.game.boardgame_backend.dto.entity.GameMove;
+import com.shanks.game.boardgame_backend.dto.entity.GameSnapshot;
 import com.shanks.game.boardgame_backend.dto.entity.User;
 import com.shanks.game.boardgame_backend.dao.repository.GameDataRepository;
 import com.shanks.game.boardgame_backend.dao.repository.GameRepository;
 import com.shanks.game.boardgame_backend.dao.repository.UserRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shanks.game.boardgame_backend.dto.event.GameEvent;
+import com.shanks.game.boardgame_backend.dto.event.MoveEvent;
+import com.shanks.game.boardgame_backend.dto.event.SnapshotEvent;
+import com.shanks.game.boardgame_backend.dto.event.StatusEvent;
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.BoardCodec;
+import com.shanks.game.boardgame_backend.engine.BoardJson;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.engine.Outcome;
+import com.shanks.game.boardgame_backend.engine.Rules;
+import com.shanks.game.boardgame_backend.session.GameDataWriteBehind;
+import com.shanks.game.boardgame_backend.session.GameSession;
+import com.shanks.game.boardgame_backend.session.GameSessionRegistry;
+import com.shanks.game.boardgame_backend.spectate.SpectatorHub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class GameDataService {
 
+    private static final Logger logger = LoggerFactory.getLogger(GameDataService.class);
+
     @Autowired
     private GameDataRepository gameDataRepository;
 
@@ -26,79 +51,403 @@ public class GameDataService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private GameService gameService;
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private GameSessionRegistry sessionRegistry;
+
+    @Autowired
+    private SpectatorHub spectatorHub;
+
+    // a position reached this often with the same side to move is a draw
+    private static final int REPETITION_DRAW = 3;
+
+    @Value("${app.game-move.snapshot-interval:20}")
+    private int snapshotInterval;
+
+    @Autowired
+    private GameDataWriteBehind writeBehind;
+
+    // lazy: the bot plays through this service
+    @Autowired
+    @Lazy
+    private BotService botService;
 
     public GameData ensureGameDataForGame(Long gameId) {
         Optional<GameData> maybe = gameDataRepository.findByGameId(gameId);
         if (maybe.isPresent()) return maybe.get();
 
-        // create default board structure (client expects { board: [...], turn: "red" })
-        String defaultJson = createDefaultBoardJson();
+        Board initial = Board.initial();
         GameData gd = GameData.builder()
                 .gameId(gameId)
                 .lastPlayerId(null)
-                .data(defaultJson)
-                .turn("red")
+                .board(BoardCodec.encode(initial))
+                .turn(Board.colorName(initial.getTurn()))
                 .build();
         return gameDataRepository.save(gd);
     }
 
-    private String createDefaultBoardJson() {
-        // small 8x8 default similar to frontend initial board
-        try {
-            JsonNode root = objectMapper.createObjectNode();
-            ((com.fasterxml.jackson.databind.node.ObjectNode) root).put("turn", "red");
-            com.fasterxml.jackson.databind.node.ArrayNode board = objectMapper.createArrayNode();
-            for (int r = 0; r < 8; r++) {
-                com.fasterxml.jackson.databind.node.ArrayNode row = objectMapper.createArrayNode();
-                for (int c = 0; c < 8; c++) {
-                    if (r < 2) row.add("red");
-                    else if (r >= 6) row.add("blue");
-                    else row.addNull();
-                }
-                board.add(row);
-            }
-            ((com.fasterxml.jackson.databind.node.ObjectNode) root).set("board", board);
-            return objectMapper.writeValueAsString(root);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    /** Board of a stored row; rows written before the binary format are read from their JSON. */
+    public static Board boardOf(GameData gd) {
+        if (gd.getBoard() != null) {
+            return BoardCodec.decode(gd.getBoard());
+        }
+        if (gd.getData() != null) {
+            return BoardJson.read(gd.getData());
         }
+        return Board.initial();
+    }
+
+    // detached copy with the JSON board filled in, for clients and debugging
+    private GameData view(GameData gd) {
+        Board board = boardOf(gd);
+        return GameData.builder()
+                .id(gd.getId())
+                .gameId(gd.getGameId())
+                .lastPlayerId(gd.getLastPlayerId())
+                .board(BoardCodec.encode(board))
+                .data(BoardJson.write(board))
+                .turn(Board.colorName(board.getTurn()))
+                .build();
     }
 
     /**
      * Process a move coming from socket/controller.
-     * payload should include playerId and move board (or minimal move) — we'll accept full board JSON for simplicity.
+     * The move is queued on the game's in-memory session and applied there, in arrival order,
+     * against the authoritative board; the game_data row is written later by the write-behind buffer.
+     * player1 plays red and player2 plays blue.
      */
-    public GameData processSocketMove(Long gameId, Long playerId, String boardJson, String nextTurn) {
-        Game game = gameRepository.findById(gameId).orElseThrow(() -> new RuntimeException("Game not found"));
-        GameData gd = gameDataRepository.findByGameId(gameId).orElse(null);
+    public void processSocketMove(Long gameId, Long playerId, int move) {
+        onSession(gameId, session -> {
+            try {
+                applyMove(session, playerId, move);
+            } catch (RuntimeException e) {
+                logger.warn("Rejected move {} in game {} from player {}: {}",
+                        Move.toString(move), gameId, playerId, e.getMessage());
+            }
+        });
+    }
 
-        if (gd == null) {
-            gd = ensureGameDataForGame(gameId);
+    // runs on the session mailbox
+    private void applyMove(GameSession session, Long playerId, int move) {
+        if (session.isFinished()) {
+            throw new RuntimeException("Game already finished");
+        }
+        int color = session.colorOf(playerId);
+        if (color < 0) {
+            // player2 may have joined after the session was loaded
+            refreshPlayers(session);
+            color = session.colorOf(playerId);
+        }
+        if (color < 0) {
+            throw new RuntimeException("Player is not part of this game");
         }
 
-        // Validate turn: if lastPlayerId equals playerId -> reject
-        if (gd.getLastPlayerId() != null && gd.getLastPlayerId().equals(playerId)) {
+        // Validate turn and move against the authoritative board
+        Board board = session.getBoard();
+        if (board.getTurn() != color) {
             throw new RuntimeException("Not your turn");
         }
+        if (!Rules.isLegal(board, move)) {
+            throw new RuntimeException("Illegal move " + Move.toString(move));
+        }
+        Board before = board.copy();
+        long removed = Rules.apply(board, move);
+        session.setLastPlayerId(playerId);
+        // destroyed stones never come back, so nothing before this move can repeat
+        if (removed != 0) session.getHistory().clear();
+        int occurrences = session.getHistory().add(board.hash());
+
+        writeBehind.enqueue(snapshot(session));
+        logMove(session, playerId, move);
+
+        // Broadcast only what changed
+        publish(session, MoveEvent.of(session.getGameId(), session.nextSeq(), playerId, move, before, board, removed));
+
+        Outcome outcome = Rules.outcome(board);
+        if (!outcome.isFinished() && occurrences >= REPETITION_DRAW) {
+            outcome = Outcome.DRAW;
+        }
+        if (outcome.isFinished()) {
+            finishGame(session, outcome);
+            return;
+        }
+        promptBot(session);
+    }
+
+    // runs on the session mailbox
+    private void promptBot(GameSession session) {
+        Board board = session.getBoard();
+        Long toMove = board.getTurn() == Board.RED ? session.getPlayer1Id() : session.getPlayer2Id();
+        if (botService.isBot(toMove)) {
+            botService.requestMove(session.getGameId(), toMove, board, session.getHistory().positions());
+        }
+    }
+
+    private void logMove(GameSession session, Long playerId, int move) {
+        int ply = session.nextPly();
+        writeBehind.appendMove(GameMove.builder()
+                .gameId(session.getGameId())
+                .ply(ply)
+                .move(move)
+                .playerId(playerId)
+                .playedAt(System.currentTimeMillis())
+                .build());
+        if (ply % snapshotInterval == 0) {
+            appendSnapshot(session.getGameId(), ply, session.getBoard());
+        }
+    }
+
+    private void appendSnapshot(Long gameId, int ply, Board board) {
+        writeBehind.appendSnapshot(GameSnapshot.builder()
+                .gameId(gameId)
+                .ply(ply)
+                .board(BoardCodec.encode(board))
+                .build());
+    }
+
+    private void finishGame(GameSession session, Outcome outcome) {
+        session.setFinished(true);
+        // the session stays registered until the game row says FINISHED, so nobody reloads it meanwhile
+        try {
+            Game game = gameRepository.findById(session.getGameId())
+                    .orElseThrow(() -> new RuntimeException("Game not found"));
+            Game ended;
+            if (outcome == Outcome.DRAW) {
+                ended = gameService.updateGameStatus(game.getId(), "FINISHED");
+            } else {
+                User winner = outcome.winner() == Board.RED ? game.getPlayer1() : game.getPlayer2();
+                User loser = outcome.winner() == Board.RED ? game.getPlayer2() : game.getPlayer1();
+                ended = gameService.endGame(game.getId(), winner, loser);
+            }
+            publish(session, new StatusEvent(ended, session.nextSeq()));
+        } finally {
+            closeOnMailbox(session);
+        }
+    }
+
+    /**
+     * Announces a game that was finished elsewhere (give up, REST end) and closes its in-memory session.
+     * Moves already queued are applied first, then the latest state is written out.
+     */
+    public void gameEnded(Game game) {
+        withSession(game.getId(), session -> {
+            if (session.isFinished()) return;
+            publish(session, new StatusEvent(game, session.nextSeq()));
+            closeOnMailbox(session);
+        }, () -> {
+            StatusEvent status = new StatusEvent(game, GameSession.detachedSeq());
+            messagingTemplate.convertAndSend(topic(game.getId()), status);
+            spectatorHub.status(game.getId(), status);
+        });
+    }
+
+    private void closeOnMailbox(GameSession session) {
+        session.setFinished(true);
+        writeBehind.flush(session.getGameId());
+        sessionRegistry.close(session);
+    }
+
+    /** Syncs the session's seats after a join and sends everyone the seats plus a full snapshot. */
+    public void playerJoined(Game game) {
+        if ("FINISHED".equals(game.getStatus())) {
+            StatusEvent status = new StatusEvent(game, GameSession.detachedSeq());
+            messagingTemplate.convertAndSend(topic(game.getId()), status);
+            spectatorHub.status(game.getId(), status);
+            return;
+        }
+        Long player1Id = game.getPlayer1() != null ? game.getPlayer1().getId() : null;
+        Long player2Id = game.getPlayer2() != null ? game.getPlayer2().getId() : null;
+        onSession(game.getId(), session -> {
+            session.setPlayers(player1Id, player2Id);
+            publish(session, new StatusEvent(game, session.nextSeq()));
+            publish(session, new SnapshotEvent(game.getId(), session.nextSeq(),
+                    session.getBoard(), session.getLastPlayerId()));
+            promptBot(session);
+        });
+    }
+
+    /** Sends the current board to one user only, e.g. after they lost track of the event stream. */
+    public void sendSnapshot(Long gameId, String user) {
+        String destination = queue(gameId);
+        withSession(gameId, session -> messagingTemplate.convertAndSendToUser(user, destination,
+                new SnapshotEvent(gameId, session.getSeq(), session.getBoard(), session.getLastPlayerId())), () -> {
+            GameData gd = ensureGameDataForGame(gameId);
+            messagingTemplate.convertAndSendToUser(user, destination,
+                    new SnapshotEvent(gameId, GameSession.detachedSeq(), boardOf(gd), gd.getLastPlayerId()));
+        });
+    }
+
+    /**
+     * Brings one user's stream up to date after a reconnect, on /user/queue/game/{gameId}: the events
+     * after lastSeq from the game's replay buffer, or, when they are no longer all buffered or the game
+     * is not live, its latest STATUS and a SNAPSHOT to start over from. Nothing is sent when lastSeq is current.
+     */
+    public void resume(Long gameId, long lastSeq, String user) {
+        String destination = queue(gameId);
+        withSession(gameId, session -> {
+            List<GameEvent> missed = session.eventsAfter(lastSeq);
+            if (missed != null) {
+                for (GameEvent event : missed) messagingTemplate.convertAndSendToUser(user, destination, event);
+                return;
+            }
+            if (session.getLastStatus() != null) {
+                messagingTemplate.convertAndSendToUser(user, destination, session.getLastStatus());
+            }
+            messagingTemplate.convertAndSendToUser(user, destination, new SnapshotEvent(gameId, session.getSeq(),
+                    session.getBoard(), session.getLastPlayerId()));
+        }, () -> {
+            Game game = gameRepository.findById(gameId).orElseThrow(() -> new RuntimeException("Game not found"));
+            GameData gd = ensureGameDataForGame(gameId);
+            long seq = GameSession.detachedSeq();
+            messagingTemplate.convertAndSendToUser(user, destination, new StatusEvent(game, seq));
+            messagingTemplate.convertAndSendToUser(user, destination,
+                    new SnapshotEvent(gameId, seq, boardOf(gd), gd.getLastPlayerId()));
+        });
+    }
+
+    /**
+     * Supplies a newly watched game's seats and board to its spectators.
+     * A live game is read on its mailbox, anything else from the database.
+     */
+    public void spectatorJoined(Long gameId) {
+        Optional<Game> game = gameRepository.findById(gameId);
+        if (game.isEmpty()) return;
+        withSession(gameId, session -> {
+            spectatorHub.status(gameId, new StatusEvent(game.get(), session.getSeq()));
+            spectatorHub.position(gameId, new SnapshotEvent(gameId, session.getSeq(),
+                    session.getBoard(), session.getLastPlayerId()));
+        }, () -> {
+            GameData gd = ensureGameDataForGame(gameId);
+            long seq = GameSession.detachedSeq();
+            spectatorHub.status(gameId, new StatusEvent(game.get(), seq));
+            spectatorHub.position(gameId, new SnapshotEvent(gameId, seq, boardOf(gd), gd.getLastPlayerId()));
+        });
+    }
+
+    // runs on the session mailbox; players first, spectators get the resulting state later and coalesced
+    private void publish(GameSession session, GameEvent event) {
+        Long gameId = session.getGameId();
+        session.record(event);
+        messagingTemplate.convertAndSend(topic(gameId), event);
+        if (!spectatorHub.watched(gameId)) return;
+        if (event instanceof StatusEvent status) {
+            spectatorHub.status(gameId, status);
+        } else if (event instanceof SnapshotEvent snapshot) {
+            spectatorHub.position(gameId, snapshot);
+        } else {
+            spectatorHub.position(gameId, new SnapshotEvent(gameId, event.getSeq(),
+                    session.getBoard(), session.getLastPlayerId()));
+        }
+    }
 
-        // update authoritative data
-        gd.setData(boardJson);
-        gd.setLastPlayerId(playerId);
-        gd.setTurn(nextTurn);
+    private static String topic(Long gameId) {
+        return "/topic/game/" + gameId;
+    }
 
-        GameData saved = gameDataRepository.save(gd);
+    // per user, resolved by Spring to each of their sessions
+    private static String queue(Long gameId) {
+        return "/queue/game/" + gameId;
+    }
 
-        // Broadcast the updated GameData to subscribers
-        messagingTemplate.convertAndSend("/topic/game/" + gameId, saved);
+    private void refreshPlayers(GameSession session) {
+        gameRepository.findById(session.getGameId()).ifPresent(game -> session.setPlayers(
+                game.getPlayer1() != null ? game.getPlayer1().getId() : null,
+                game.getPlayer2() != null ? game.getPlayer2().getId() : null));
+    }
+
+    // loaded outside the registry's map, so a slow database holds up only this caller;
+    // when another thread registered the game meanwhile, its session wins and this one is dropped
+    private GameSession session(Long gameId) {
+        GameSession session = sessionRegistry.get(gameId);
+        if (session != null && !session.isClosed()) return session;
+        return loadSession(gameId);
+    }
+
+    /**
+     * Runs the task on the game's mailbox, loading the session if needed. A session that closed after
+     * it was looked up (finished or evicted) hands the task to its successor, on the same lane.
+     */
+    private void onSession(Long gameId, Consumer<GameSession> task) {
+        GameSession session = session(gameId);
+        if (!session.submit(() -> task.accept(session.isClosed() ? session(gameId) : session))) {
+            onSession(gameId, task);
+        }
+    }
+
+    /**
+     * Runs live on the game's mailbox, or otherwise when the game has no session, including one that
+     * closed after it was looked up; a closed session has been written out, so the database is current.
+     */
+    private void withSession(Long gameId, Consumer<GameSession> live, Runnable otherwise) {
+        GameSession session = sessionRegistry.get(gameId);
+        if (session == null) {
+            otherwise.run();
+            return;
+        }
+        Runnable task = () -> {
+            if (session.isClosed()) otherwise.run();
+            else live.accept(session);
+        };
+        if (!session.submit(task)) otherwise.run();
+    }
+
+    // same as withSession, for a value the caller waits for
+    private <T> T read(Long gameId, Function<GameSession, T> live, Supplier<T> otherwise) {
+        GameSession session = sessionRegistry.get(gameId);
+        if (session != null) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            if (session.submit(() -> result.complete(session.isClosed() ? null : live.apply(session)))) {
+                T value = result.join();
+                if (value != null) return value;
+            }
+        }
+        return otherwise.get();
+    }
+
+    private GameSession loadSession(Long gameId) {
+        Game game = gameRepository.findById(gameId).orElseThrow(() -> new RuntimeException("Game not found"));
+        if ("FINISHED".equals(game.getStatus())) {
+            throw new RuntimeException("Game already finished");
+        }
+        GameData gd = ensureGameDataForGame(gameId);
+        Board board = boardOf(gd);
+        int lastPly = writeBehind.lastPly(gameId);
+        // game started before the move log existed: anchor its replay at the current board, once
+        Board anchor = lastPly == 0 && !board.equals(Board.initial()) && !writeBehind.hasSnapshot(gameId, 0)
+                ? board.copy() : null;
+        GameSession loaded = sessionRegistry.create(gameId, gd.getId(),
+                game.getPlayer1() != null ? game.getPlayer1().getId() : null,
+                game.getPlayer2() != null ? game.getPlayer2().getId() : null,
+                board, gd.getLastPlayerId());
+        loaded.setPly(lastPly);
+        GameSession session = sessionRegistry.register(loaded);
+        if (session == loaded && anchor != null) appendSnapshot(gameId, 0, anchor);
+        return session;
+    }
+
+    private GameData snapshot(GameSession session) {
+        Board board = session.getBoard();
+        return GameData.builder()
+                .id(session.getGameDataId())
+                .gameId(session.getGameId())
+                .lastPlayerId(session.getLastPlayerId())
+                .board(BoardCodec.encode(board))
+                .turn(Board.colorName(board.getTurn()))
+                .build();
+    }
 
-        return saved;
+    /** Copy of a game's current board; a live game is read through its mailbox. */
+    public Board getBoard(Long gameId) {
+        return read(gameId, session -> session.getBoard().copy(), () -> boardOf(ensureGameDataForGame(gameId)));
     }
 
     public GameData getGameData(Long gameId) {
-        return gameDataRepository.findByGameId(gameId).orElseGet(() -> ensureGameDataForGame(gameId));
+        // read through the mailbox so the snapshot is never taken mid-move
+        return view(read(gameId, this::snapshot, () -> ensureGameDataForGame(gameId)));
     }
 }
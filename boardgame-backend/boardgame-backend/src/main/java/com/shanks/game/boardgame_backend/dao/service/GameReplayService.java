@@ -0,0 +1,55 @@
+package com.shanks.game.boardgame_backend.dao.service;
+
+import com.shanks.game.boardgame_backend.dao.repository.GameMoveRepository;
+import com.shanks.game.boardgame_backend.dao.repository.GameSnapshotRepository;
+import com.shanks.game.boardgame_backend.dto.entity.GameMove;
+import com.shanks.game.boardgame_backend.dto.entity.GameSnapshot;
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.BoardCodec;
+import com.shanks.game.boardgame_backend.engine.Rules;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class GameReplayService {
+
+    @Autowired
+    private GameMoveRepository gameMoveRepository;
+
+    @Autowired
+    private GameSnapshotRepository gameSnapshotRepository;
+
+    /**
+     * Rebuilds the board after move number ply (0 = start) from the nearest snapshot at or before it
+     * plus the logged moves in between. Moves still waiting in the write-behind buffer are not visible yet.
+     */
+    public Board replay(Long gameId, int ply) {
+        if (ply < 0) {
+            throw new IllegalArgumentException("ply must not be negative");
+        }
+
+        Optional<GameSnapshot> snapshot = gameSnapshotRepository.findTopByGameIdAndPlyLessThanEqualOrderByPlyDesc(gameId, ply);
+        Board board = snapshot.map(s -> BoardCodec.decode(s.getBoard())).orElseGet(Board::initial);
+        int from = snapshot.map(GameSnapshot::getPly).orElse(0);
+        if (from == ply) return board;
+
+        List<GameMove> moves = gameMoveRepository.findByGameIdAndPlyBetweenOrderByPlyAsc(gameId, from + 1, ply);
+        if (moves.size() != ply - from) {
+            throw new RuntimeException("Game " + gameId + " has no move " + ply);
+        }
+        for (GameMove m : moves) {
+            if (!Rules.isLegal(board, m.getMove())) {
+                throw new RuntimeException("Move log of game " + gameId + " is inconsistent at ply " + m.getPly());
+            }
+            Rules.apply(board, m.getMove());
+        }
+        return board;
+    }
+
+    public int lastPly(Long gameId) {
+        return gameMoveRepository.findLastPly(gameId);
+    }
+}
@@ -1,23 +1,39 @@
 package com.shanks.game.boardgame_backend.dao.service;
 
+import com.shanks.game.boardgame_backend.cache.UserCache;
 import com.shanks.game.boardgame_backend.dto.entity.Game;
 import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.dto.view.GameHistoryPage;
+import com.shanks.game.boardgame_backend.dto.view.GameSummary;
+import com.shanks.game.boardgame_backend.dto.view.GameSummaryRow;
 import com.shanks.game.boardgame_backend.dao.repository.GameRepository;
 import com.shanks.game.boardgame_backend.dao.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class GameService {
 
+    public static final int WIN_POINTS = 3;
+    public static final int LOSS_POINTS = 1;
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     @Autowired
     private GameRepository gameRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private UserCache userCache;
+
     public Game createGame(User player1, User player2) {
         Game game = Game.builder()
                 .player1(player1)
@@ -28,8 +44,28 @@ public class GameService {
         return gameRepository.save(game);
     }
 
-    public List<Game> getGamesByUser(Long userId) {
-        return gameRepository.findByPlayer1IdOrPlayer2Id(userId, userId);
+    /** One page of a player's games, newest first; before is the id of the last game already seen. */
+    public GameHistoryPage getHistory(Long userId, Long before, String status, int size) {
+        int safeSize = Math.min(Math.max(1, size), MAX_HISTORY_PAGE_SIZE);
+        String safeStatus = status == null || status.isBlank() ? null : status.trim().toUpperCase();
+        // one extra row tells whether another page follows
+        List<GameSummaryRow> rows = gameRepository.findHistory(userId,
+                before == null ? Long.MAX_VALUE : before, safeStatus, safeSize + 1);
+
+        List<GameSummary> games = new ArrayList<>(Math.min(rows.size(), safeSize));
+        for (int i = 0; i < rows.size() && i < safeSize; i++) {
+            GameSummaryRow row = rows.get(i);
+            games.add(new GameSummary(row.getId(), row.getOpponentId(), row.getOpponentUsername(),
+                    result(row, userId), row.getStatus(), row.getCreatedAt()));
+        }
+        Long nextCursor = rows.size() > safeSize ? games.get(safeSize - 1).getGameId() : null;
+        return new GameHistoryPage(safeSize, nextCursor, games);
+    }
+
+    private static String result(GameSummaryRow row, Long userId) {
+        if (!"FINISHED".equals(row.getStatus())) return null;
+        if (row.getWinnerId() == null) return "DRAW";
+        return row.getWinnerId().equals(userId) ? "WIN" : "LOSS";
     }
 
     public Game updateGameStatus(Long gameId, String status) {
@@ -39,40 +75,33 @@ public class GameService {
         return gameRepository.save(game);
     }
 
+    /**
+     * Records the result and both players' stats. A game that is already finished (the server ended it,
+     * then a late end or give-up arrives) is returned unchanged, so nobody is credited twice.
+     */
+    @Transactional
     public Game endGame(Long gameId, User winner, User loser) {
         Game game = gameRepository.findById(gameId)
                 .orElseThrow(() -> new RuntimeException("Game not found"));
+        if (!isSeated(game, winner) || !isSeated(game, loser)) {
+            throw new IllegalArgumentException("Winner and loser must be the players of game " + gameId);
+        }
 
-        // update game result
-        game.setWinner(winner);
-        game.setStatus("FINISHED");
-        gameRepository.save(game);
-
-        // update winner stats
-        winner.setWins(winner.getWins() + 1);
-        winner.setGamesPlayed(winner.getGamesPlayed() + 1);
-        winner.setRankPoints(winner.getRankPoints() + 3);
-        userRepository.save(winner);
-
-        // update loser stats
-        loser.setLosses(loser.getLosses() + 1);
-        loser.setGamesPlayed(loser.getGamesPlayed() + 1);
-        loser.setRankPoints(Math.max(0, loser.getRankPoints() - 1)); // no negatives
-        userRepository.save(loser);
-
-        // recalc ranks
-        recalculateRanks();
+        // update game result; the conditional UPDATE also settles two endings racing each other
+        if (gameRepository.finish(gameId, winner) == 0) {
+            return game;
+        }
 
-        return game;
-    }
+        // stats are bumped in place; the row locks keep both players ordered against other endings
+        userCache.evict(winner.getId());
+        userCache.evict(loser.getId());
+        userRepository.recordWin(winner.getId(), WIN_POINTS);
+        userRepository.recordLoss(loser.getId(), LOSS_POINTS); // no negatives
 
-    private void recalculateRanks() {
-        List<User> allUsers = userRepository.findAllByOrderByRankPointsDesc();
-        int rank = 1;
-        for (User u : allUsers) {
-            u.setCurrentRank(rank++);
-            userRepository.save(u);
-        }
+        // both players move in the leaderboard once this commits; hand back the game with fresh player rows
+        leaderboardService.refresh(List.of(winner.getId(), loser.getId()));
+        return gameRepository.findById(gameId)
+                .orElseThrow(() -> new RuntimeException("Game not found"));
     }
 
     public Game playerJoin(Long gameId, String username) {
@@ -81,7 +110,7 @@ public class GameService {
 
         // If player 2 slot empty, add player
         if (game.getPlayer2() == null) {
-            User player2 = userRepository.findByUsername(username)
+            User player2 = userCache.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("User not found"));
             game.setPlayer2(player2);
             game.setStatus("IN_PROGRESS");
@@ -99,18 +128,32 @@ public class GameService {
 
         return gameRepository.save(game);    }
 
+    @Transactional
     public Game endGameSocket(Long gameId, String winnerUsername) {
         Game game = gameRepository.findById(gameId)
                 .orElseThrow(() -> new RuntimeException("Game not found"));
 
-        User winner = userRepository.findByUsername(winnerUsername)
-                .orElseThrow(() -> new RuntimeException("Winner not found"));
-        User loser = (winner.getId().equals(game.getPlayer1().getId()))
-                ? game.getPlayer2()
-                : game.getPlayer1();
+        // only one of the two seats can win, whatever name the client sends
+        User winner = seat(game.getPlayer1(), winnerUsername) ? game.getPlayer1()
+                : seat(game.getPlayer2(), winnerUsername) ? game.getPlayer2()
+                : null;
+        if (winner == null) {
+            throw new IllegalArgumentException("Winner is not a player of game " + gameId);
+        }
+        User loser = winner == game.getPlayer1() ? game.getPlayer2() : game.getPlayer1();
 
         return endGame(gameId, winner, loser);    }
 
+    private static boolean seat(User player, String username) {
+        return player != null && player.getUsername().equals(username);
+    }
+
+    private static boolean isSeated(Game game, User user) {
+        return user != null && user.getId() != null
+                && ((game.getPlayer1() != null && user.getId().equals(game.getPlayer1().getId()))
+                || (game.getPlayer2() != null && user.getId().equals(game.getPlayer2().getId())));
+    }
+
     public Game findWaitingGame() {
         return gameRepository.findFirstByStatus("WAITING");
     }
@@ -119,6 +162,10 @@ public class GameService {
         return gameRepository.save(game);
     }
 
+    public List<Game> saveAll(List<Game> games) {
+        return gameRepository.saveAll(games);
+    }
+
 }
 
 
@@ -0,0 +1,145 @@
+package com.shanks.game.boardgame_backend.dao.service;
+
+import com.shanks.game.boardgame_backend.dao.repository.UserRepository;
+import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.dto.view.LeaderboardPage;
+import com.shanks.game.boardgame_backend.dto.view.UserRankRow;
+import com.shanks.game.boardgame_backend.ranking.RankIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Global ranking kept in memory. Loaded once from the users table, then moved by one O(log n) update
+ * per changed player instead of rewriting every user's current_rank after each game. The stored
+ * column is caught up now and then by one window-function UPDATE.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final RankIndex index = new RankIndex();
+    private volatile boolean loaded;
+    // set whenever the index moves, cleared once current_rank has been written
+    private volatile boolean dirty = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            logger.warn("Leaderboard not loaded at startup, will retry on first use: {}", e.getMessage());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            for (UserRankRow row : userRepository.findAllRankRows()) {
+                index.put(row.getId(), row.getUsername(), row.getRankPoints());
+            }
+            loaded = true;
+            logger.info("Leaderboard loaded with {} players", index.size());
+        }
+    }
+
+    /** Re-ranks a user after their points or username changed and fills in their new rank. */
+    public void update(User user) {
+        if (user == null || user.getId() == null) return;
+        // the rank is only meaningful against the whole table
+        ensureLoaded();
+        synchronized (this) {
+            index.put(user.getId(), user.getUsername(), user.getRankPoints());
+            dirty = true;
+        }
+        user.setCurrentRank(index.rankOf(user.getId()));
+    }
+
+    /**
+     * Re-reads the points of the given users after an in-place UPDATE and moves them in the index.
+     * Inside a transaction that happens once it commits, so a rolled-back game never moves anyone.
+     */
+    public void refresh(Collection<Long> userIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(userIds);
+                }
+            });
+        } else {
+            reload(userIds);
+        }
+    }
+
+    private void reload(Collection<Long> userIds) {
+        List<UserRankRow> rows = userRepository.findRankRowsByIdIn(userIds);
+        synchronized (this) {
+            for (UserRankRow row : rows) {
+                index.put(row.getId(), row.getUsername(), row.getRankPoints());
+            }
+            dirty = true;
+        }
+    }
+
+    public synchronized void remove(Long userId) {
+        index.remove(userId);
+        dirty = true;
+    }
+
+    /** Writes every user's current_rank with a single RANK() OVER statement when the ranking moved. */
+    @Scheduled(fixedDelayString = "${app.leaderboard.persist-interval-ms:60000}")
+    public void persistRanks() {
+        if (!dirty) return;
+        dirty = false;
+        try {
+            int rows = userRepository.recomputeRanks();
+            logger.debug("Stored current_rank for {} players", rows);
+        } catch (RuntimeException e) {
+            dirty = true;
+            logger.warn("Failed to store current_rank: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 1-based rank, or 0 while the index is not loaded yet or the user is unknown.
+     * Never queries the database, so it is safe to call while an entity is being loaded.
+     */
+    public int rankOf(Long userId) {
+        return loaded && userId != null ? index.rankOf(userId) : 0;
+    }
+
+    public LeaderboardPage page(int page, int size) {
+        ensureLoaded();
+        int safePage = Math.max(0, page);
+        int safeSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        long offset = (long) safePage * safeSize;
+        return new LeaderboardPage(safePage, safeSize, index.size(),
+                offset > Integer.MAX_VALUE ? List.of() : index.page((int) offset, safeSize));
+    }
+
+    public RankIndex.Entry entry(Long userId) {
+        ensureLoaded();
+        RankIndex.Entry entry = index.get(userId);
+        if (entry == null) {
+            throw new RuntimeException("User not found");
+        }
+        return entry;
+    }
+}
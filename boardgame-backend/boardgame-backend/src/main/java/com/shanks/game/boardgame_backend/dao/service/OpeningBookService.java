@@ -0,0 +1,60 @@
+package com.shanks.game.boardgame_backend.dao.service;
+
+import com.shanks.game.boardgame_backend.book.OpeningBook;
+import com.shanks.game.boardgame_backend.dto.view.BookMove;
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.engine.Rules;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/** Early-game moves from the opening book generated offline (mvn -Pbook package). No file, no book moves. */
+@Service
+public class OpeningBookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpeningBookService.class);
+
+    @Autowired
+    private GameDataService gameDataService;
+
+    @Value("${app.book.file:book/opening.book}")
+    private String file;
+
+    private OpeningBook book;
+
+    @PostConstruct
+    void load() {
+        try {
+            book = OpeningBook.open(Path.of(file));
+        } catch (IOException e) {
+            logger.warn("Opening book {} not loaded: {}", file, e.getMessage());
+            book = OpeningBook.empty();
+        }
+        if (book.size() > 0) {
+            logger.info("Opening book loaded: {} positions, {} plies at depth {}", book.size(), book.plies(), book.depth());
+        }
+    }
+
+    /** Book move for the position, or {@link Move#NONE}. */
+    public int move(Board board) {
+        int move = book.move(board);
+        // a 64-bit key collision must not produce an illegal move
+        return move != Move.NONE && Rules.isLegal(board, move) ? move : Move.NONE;
+    }
+
+    public BookMove suggest(Long gameId) {
+        Board board = gameDataService.getBoard(gameId);
+        int entry = book.find(board.hash());
+        if (entry < 0 || !Rules.isLegal(board, book.move(entry))) {
+            return new BookMove(gameId, board.getTurn(), Move.NONE, 0, 0);
+        }
+        return new BookMove(gameId, board.getTurn(), book.move(entry), book.score(entry), book.depth(entry));
+    }
+}
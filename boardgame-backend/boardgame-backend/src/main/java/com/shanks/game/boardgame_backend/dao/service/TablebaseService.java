@@ -0,0 +1,55 @@
+package com.shanks.game.boardgame_backend.dao.service;
+
+import com.shanks.game.boardgame_backend.dto.view.TablebaseProbe;
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.tablebase.Tablebase;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Endgame results from the tablebase files generated offline (mvn -Ptablebase package). Without files
+ * every probe simply answers "not covered".
+ */
+@Service
+public class TablebaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TablebaseService.class);
+
+    @Autowired
+    private GameDataService gameDataService;
+
+    @Value("${app.tablebase.dir:tablebase}")
+    private String dir;
+
+    private Tablebase tablebase;
+
+    @PostConstruct
+    void load() {
+        try {
+            tablebase = Tablebase.open(Path.of(dir));
+        } catch (IOException e) {
+            logger.warn("Tablebase in {} not loaded: {}", dir, e.getMessage());
+            tablebase = Tablebase.empty();
+        }
+        if (!tablebase.isEmpty()) {
+            logger.info("Tablebase loaded: {} tables from {}", tablebase.tableCount(), dir);
+        }
+    }
+
+    public TablebaseProbe probe(Long gameId) {
+        Board board = gameDataService.getBoard(gameId);
+        Tablebase.Result result = tablebase.probe(board);
+        String turn = Board.colorName(board.getTurn());
+        if (result == null) {
+            return new TablebaseProbe(gameId, turn, false, null, 0);
+        }
+        return new TablebaseProbe(gameId, turn, true, result.kind().name(), result.plies());
+    }
+}
@@ -0,0 +1,96 @@
+package com.shanks.game.boardgame_backend.dao.service;
+
+import com.shanks.game.boardgame_backend.dao.repository.UserRepository;
+import com.shanks.game.boardgame_backend.dto.view.UserRankRow;
+import com.shanks.game.boardgame_backend.dto.view.UserSearchPage;
+import com.shanks.game.boardgame_backend.friends.FriendGraph;
+import com.shanks.game.boardgame_backend.usernames.UsernameIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Username search and autocomplete served from an in-memory n-gram index. Loaded once from the
+ * users table, then kept in step by UserService on register, rename and delete.
+ */
+@Service
+public class UserSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchService.class);
+
+    public static final int MAX_PAGE_SIZE = 50;
+    // deeper pages of a keystroke search are never looked at
+    public static final int MAX_RESULTS = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FriendGraph friendGraph;
+
+    private final UsernameIndex index = new UsernameIndex();
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            logger.warn("Username index not loaded at startup, will retry on first use: {}", e.getMessage());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            for (UserRankRow row : userRepository.findAllRankRows()) {
+                index.put(row.getId(), row.getUsername());
+            }
+            loaded = true;
+            logger.info("Username index loaded with {} users", index.size());
+        }
+    }
+
+    /** Registers a new username or moves a renamed user. */
+    public void put(Long userId, String username) {
+        if (userId != null) index.put(userId, username);
+    }
+
+    public void remove(Long userId) {
+        if (userId != null) index.remove(userId);
+    }
+
+    /** Ranked matches for the query; with friendsOnly only the accepted friends of userId. */
+    public UserSearchPage autocomplete(String query, int page, int size, Long userId, boolean friendsOnly) {
+        int safeSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        int safePage = Math.min(Math.max(0, page), MAX_RESULTS / safeSize);
+        Set<Long> within = null;
+        if (friendsOnly) {
+            if (userId == null) {
+                throw new RuntimeException("userId is required for a friends-only search");
+            }
+            within = friendGraph.of(userId).friendIds();
+        }
+        UsernameIndex.Result result = search(query, within, safePage * safeSize, safeSize);
+        return new UserSearchPage(query, safePage, safeSize, result.total(), result.hits());
+    }
+
+    public UsernameIndex.Result search(String query, Set<Long> within, int offset, int limit) {
+        ensureLoaded();
+        return index.search(query, within, offset, limit);
+    }
+
+    /** Ids of the best matches, at most MAX_RESULTS. */
+    public List<Long> matchingIds(String query, Set<Long> within) {
+        return search(query, within, 0, MAX_RESULTS).hits().stream()
+                .map(UsernameIndex.Hit::userId)
+                .toList();
+    }
+}
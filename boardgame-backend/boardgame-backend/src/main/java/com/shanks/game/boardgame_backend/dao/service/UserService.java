@@ -1,16 +1,30 @@
 package com.shanks.game.boardgame_backend.dao.service;
 
 
+import com.shanks.game.boardgame_backend.cache.UserCache;
 import com.shanks.game.boardgame_backend.dao.repository.UserRepository;
 import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.dto.view.CacheStats;
+import com.shanks.game.boardgame_backend.dto.view.UserPage;
+import com.shanks.game.boardgame_backend.dto.view.UserSearchPage;
+import com.shanks.game.boardgame_backend.dto.view.UserSummary;
+import com.shanks.game.boardgame_backend.images.ImageStore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,7 +32,21 @@ public class UserService {
 
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserSearchService userSearchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
     private static final String DEFAULT_PFP = "/images/default-avatar.png"; // ✅ default avatar
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_BATCH_SIZE = 1000;
     private BCryptPasswordEncoder passwordEncoder; // now Spring injects it
 
     @Value("${app.base-url:http://localhost:8080}")
@@ -46,7 +74,7 @@ public class UserService {
         // encode password before saving (security best practice)
         user.setPassword(new BCryptPasswordEncoder().encode(user.getPassword()));
 
-        return userRepository.save(user);
+        return indexed(cached(ranked(userRepository.save(user))));
     }
 
 
@@ -67,26 +95,68 @@ public class UserService {
     }
 
 
-    // ✅ Get All Users
-    public List<User> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        users.forEach(u -> {
-            if (u.getProfilePictureUrl() == null || u.getProfilePictureUrl().isBlank()) {
-                u.setProfilePictureUrl(DEFAULT_PFP);
+    // ✅ List Users, one keyset page at a time (after = id of the last user already seen)
+    public UserPage listUsers(Long after, int size) {
+        int safeSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        // one extra row tells whether another page follows
+        List<UserSummary> rows = summariesAfter(after == null ? 0L : after, safeSize + 1);
+        Long nextCursor = null;
+        if (rows.size() > safeSize) {
+            rows = rows.subList(0, safeSize);
+            nextCursor = rows.get(safeSize - 1).getId();
+        }
+        return new UserPage(safeSize, nextCursor, rows);
+    }
+
+    /**
+     * Writes every user as one JSON object per line. Reads in keyset batches and flushes after each,
+     * so memory stays flat however many users there are.
+     */
+    public void exportUsers(OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setRootValueSeparator(null);
+        long after = 0L;
+        while (true) {
+            List<UserSummary> batch = summariesAfter(after, EXPORT_BATCH_SIZE);
+            for (UserSummary summary : batch) {
+                json.writeObject(summary);
+                json.writeRaw('\n');
             }
-        });
-        return users;
+            json.flush();
+            if (batch.size() < EXPORT_BATCH_SIZE) break;
+            after = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    // rank from the leaderboard index, default avatar filled in as for a single user
+    private List<UserSummary> summariesAfter(long after, int limit) {
+        List<UserSummary> rows = userRepository.findSummariesAfter(after, Limit.of(limit));
+        List<UserSummary> out = new ArrayList<>(rows.size());
+        for (UserSummary row : rows) {
+            int rank = leaderboardService.rankOf(row.getId());
+            String avatar = row.getProfilePictureUrl() == null || row.getProfilePictureUrl().isBlank()
+                    ? DEFAULT_PFP : row.getProfilePictureUrl();
+            out.add(new UserSummary(row.getId(), row.getUsername(), row.getRankPoints(),
+                    rank > 0 ? rank : row.getCurrentRank(), avatar));
+        }
+        return out;
     }
 
-    // ✅ Get User by ID
+    // ✅ Get User by ID (served from the user cache)
     public User getUserById(Long id) {
-        return userRepository.findById(id)
+        return userCache.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    public User getUserByUsername(String username) {
+        return userCache.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     // ✅ Update User Stats (wins, losses, rankPoints, etc.)
     public User updateUser(User user) {
-        return userRepository.save(user);
+        userCache.evict(user.getId());
+        return indexed(cached(ranked(userRepository.save(user))));
     }
 
     // ✅ Delete User (optional – for dev/admin use)
@@ -95,56 +165,77 @@ public class UserService {
             throw new RuntimeException("User not found");
         }
         userRepository.deleteById(id);
+        userCache.evict(id);
+        userSearchService.remove(id);
+        leaderboardService.remove(id);
     }
 
 
+    @Transactional
     public User increaseRank(Long userId, int points) {
-        User user = getUserById(userId);
-        user.setRankPoints(user.getRankPoints() + points);
-        // Optional: recalc rank tiers (Bronze, Silver, etc.)
-        return userRepository.save(user);
+        userCache.evict(userId);
+        return rankChanged(userId, userRepository.addRankPoints(userId, points));
     }
 
-    // Decrease Rank (on loss)
+    // Decrease Rank (on loss), never below zero
+    @Transactional
     public User decreaseRank(Long userId, int points) {
-        User user = getUserById(userId);
-        int newPoints = user.getRankPoints() - points;
-        user.setRankPoints(Math.max(newPoints, 0)); // prevent negative
-        return userRepository.save(user);
+        userCache.evict(userId);
+        return rankChanged(userId, userRepository.addRankPoints(userId, -points));
     }
 
     // Increase Win Count
+    @Transactional
     public User increaseWins(Long userId) {
-        User user = getUserById(userId);
-        user.setWins(user.getWins() + 1);
-        user.setGamesPlayed(user.getGamesPlayed() + 1);
-        return userRepository.save(user);
+        userCache.evict(userId);
+        if (userRepository.recordWin(userId, 0) == 0) {
+            throw new RuntimeException("User not found");
+        }
+        return getUserById(userId);
     }
 
     // Increase Loss Count
+    @Transactional
     public User increaseLosses(Long userId) {
-        User user = getUserById(userId);
-        user.setLosses(user.getLosses() + 1);
-        user.setGamesPlayed(user.getGamesPlayed() + 1);
-        return userRepository.save(user);
+        userCache.evict(userId);
+        if (userRepository.recordLoss(userId, 0) == 0) {
+            throw new RuntimeException("User not found");
+        }
+        return getUserById(userId);
     }
 
+    // same matches as a case-insensitive LIKE '%username%', ranked, without scanning the table
     public List<User> searchUsers(String username) {
-        return userRepository.findByUsernameContainingIgnoreCase(username);
+        List<Long> ids = userSearchService.matchingIds(username, null);
+        Map<Long, User> byId = new HashMap<>();
+        userRepository.findAllById(ids).forEach(u -> byId.put(u.getId(), u));
+        List<User> users = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            User user = byId.get(id);
+            if (user != null) users.add(user);
+        }
+        return users;
+    }
+
+    public UserSearchPage autocomplete(String query, int page, int size, Long userId, boolean friendsOnly) {
+        return userSearchService.autocomplete(query, page, size, userId, friendsOnly);
+    }
+
+    public List<CacheStats> cacheStats() {
+        return userCache.stats();
     }
 
 
 
     public User updateProfilePicture(Long userId, String url) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = getUserById(userId);
 
         String finalUrl;
 
         if (url == null || url.isBlank()) {
             // Default profile picture
             finalUrl = baseUrl + "/pfp/" + DEFAULT_PFP;
-        } else if (url.startsWith("/pfp/")) {
+        } else if (url.startsWith("/pfp/") || url.startsWith(ImageStore.URL_PREFIX)) {
             // Frontend sent relative path → prepend base URL
             finalUrl = baseUrl + url;
         } else {
@@ -153,12 +244,12 @@ public class UserService {
         }
 
         user.setProfilePictureUrl(finalUrl);
-        return userRepository.save(user);
+        userCache.evict(userId);
+        return cached(userRepository.save(user));
     }
 
     public String getProfilePictureUrl(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = getUserById(userId);
 
         String profilePicUrl = user.getProfilePictureUrl();
 
@@ -186,7 +277,35 @@ public class UserService {
             user.setPassword(new BCryptPasswordEncoder().encode(newPassword));
         }
 
-        return userRepository.save(user);
+        userCache.evict(userId);
+        return indexed(cached(ranked(userRepository.save(user))));
+    }
+
+    // after an in-place points UPDATE: move the user in the leaderboard and return the fresh row
+    private User rankChanged(Long userId, int updated) {
+        if (updated == 0) {
+            throw new RuntimeException("User not found");
+        }
+        leaderboardService.refresh(List.of(userId));
+        return getUserById(userId);
+    }
+
+    // keeps username search in step with a saved user
+    private User indexed(User user) {
+        userSearchService.put(user.getId(), user.getUsername());
+        return user;
+    }
+
+    // write-through: the saved row replaces whatever the cache held
+    private User cached(User user) {
+        userCache.put(user);
+        return user;
+    }
+
+    // keeps the leaderboard in step with a saved user
+    private User ranked(User user) {
+        leaderboardService.update(user);
+        return user;
     }
 
 
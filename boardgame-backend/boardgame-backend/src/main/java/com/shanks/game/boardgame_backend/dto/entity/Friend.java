@@ -5,7 +5,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "friends")
+@Table(name = "friends", indexes = {
+        @Index(name = "idx_friends_user_friend", columnList = "user_id, friend_id"),
+        @Index(name = "idx_friends_friend", columnList = "friend_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
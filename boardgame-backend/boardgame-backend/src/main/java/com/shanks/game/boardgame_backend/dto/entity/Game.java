@@ -2,8 +2,16 @@ package com.shanks.game.boardgame_backend.dto.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "game", indexes = {
+        // history pages seek (player, id) on each side of the game
+        @Index(name = "idx_game_player1_id", columnList = "player1_id, id"),
+        @Index(name = "idx_game_player2_id", columnList = "player2_id, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -30,4 +38,9 @@ public class Game {
     private String boardState; // JSON / custom chess notation
 
     private String status; // WAITING, IN_PROGRESS, FINISHED
+
+    // set on insert; null for games created before the column existed
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
 }
@@ -1,5 +1,6 @@
 package com.shanks.game.boardgame_backend.dto.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -24,7 +25,13 @@ public class GameData {
     @Column(name = "last_player_id")
     private Long lastPlayerId;
 
-    // canonical board JSON (stringified)
+    // canonical board, BoardCodec binary format (version byte + masks)
+    @JsonIgnore
+    @Column(name = "board", columnDefinition = "VARBINARY(64)")
+    private byte[] board;
+
+    // legacy board JSON (stringified); only old rows still carry it until their next write,
+    // and views sent to clients fill it in from the binary board
     @Lob
     @Column(name = "data", columnDefinition = "TEXT")
     private String data;
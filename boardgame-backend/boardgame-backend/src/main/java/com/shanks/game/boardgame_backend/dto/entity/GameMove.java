@@ -0,0 +1,74 @@
+package com.shanks.game.boardgame_backend.dto.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+
+/**
+ * One row per move of a game, append-only. The move is the engine's packed int (see engine.Move),
+ * so replaying a game is a matter of applying these in ply order.
+ */
+@Entity
+@Table(name = "game_move")
+@IdClass(GameMove.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GameMove implements Persistable<GameMove.Key> {
+
+    @Id
+    @Column(name = "game_id")
+    private Long gameId;
+
+    // 1-based index of the move within the game
+    @Id
+    @Column(name = "ply")
+    private int ply;
+
+    @Column(name = "move", nullable = false)
+    private int move;
+
+    @Column(name = "player_id")
+    private Long playerId;
+
+    @Column(name = "played_at", nullable = false)
+    private long playedAt; // epoch millis
+
+    // rows are only ever inserted; skips the select Spring Data would issue for an assigned id
+    @Transient
+    @JsonIgnore
+    @Builder.Default
+    private boolean isNew = true;
+
+    @Override
+    @JsonIgnore
+    public Key getId() {
+        return new Key(gameId, ply);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long gameId;
+        private int ply;
+    }
+}
@@ -0,0 +1,52 @@
+package com.shanks.game.boardgame_backend.dto.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+/** Board after a given ply, stored every few moves so a replay never starts far from its target. */
+@Entity
+@Table(name = "game_snapshot")
+@IdClass(GameMove.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GameSnapshot implements Persistable<GameMove.Key> {
+
+    @Id
+    @Column(name = "game_id")
+    private Long gameId;
+
+    @Id
+    @Column(name = "ply")
+    private int ply;
+
+    // BoardCodec binary format
+    @Column(name = "board", nullable = false, columnDefinition = "VARBINARY(64)")
+    private byte[] board;
+
+    @Transient
+    @JsonIgnore
+    @Builder.Default
+    private boolean isNew = true;
+
+    @Override
+    @JsonIgnore
+    public GameMove.Key getId() {
+        return new GameMove.Key(gameId, ply);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -1,9 +1,11 @@
 package com.shanks.game.boardgame_backend.dto.entity;
+import com.shanks.game.boardgame_backend.ranking.UserRankListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserRankListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -27,8 +29,9 @@ public class User {
     @Column(nullable = false)
     private int rankPoints = 0;
 
-    @Column(nullable = false)
-    private int currentRank = 0; // could map ranks (like Bronze, Silver) in logic later
+    // filled from the leaderboard index on load; only LeaderboardService.persistRanks writes the column
+    @Column(nullable = false, updatable = false)
+    private int currentRank = 0;
 
     @Column(nullable = false)
     private int gamesPlayed = 0;
@@ -0,0 +1,23 @@
+package com.shanks.game.boardgame_backend.dto.event;
+
+import lombok.Getter;
+
+/**
+ * Base of everything published on /topic/game/{gameId}.
+ * seq increases by one per event of a game, so clients can spot gaps, and a client that lost its
+ * connection can ask for everything after the last seq it saw (/app/game/{gameId}/resume).
+ * A game reloaded into memory continues from a higher number, never reusing one.
+ */
+@Getter
+public abstract class GameEvent {
+
+    private final String type;
+    private final Long gameId;
+    private final long seq;
+
+    protected GameEvent(String type, Long gameId, long seq) {
+        this.type = type;
+        this.gameId = gameId;
+        this.seq = seq;
+    }
+}
@@ -0,0 +1,88 @@
+package com.shanks.game.boardgame_backend.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What one move changed: the step or activation, the cells that were cleared and the crystals that appeared.
+ * Clients apply it to their copy of the board instead of receiving the whole board again.
+ */
+@Getter
+public class MoveEvent extends GameEvent {
+
+    private final Long playerId;
+    private final boolean activation;
+    private final int fromRow;
+    private final int fromCol;
+    private final int toRow;
+    private final int toCol;
+    // [row, col] of every cleared cell, including a consumed crystal
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private final List<int[]> destroyed;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private final List<Spawn> spawned;
+    private final String turn;
+
+    public MoveEvent(Long gameId, long seq, Long playerId, int move,
+                     List<int[]> destroyed, List<Spawn> spawned, String turn) {
+        super("MOVE", gameId, seq);
+        this.playerId = playerId;
+        this.activation = Move.isActivation(move);
+        this.fromRow = Board.row(Move.from(move));
+        this.fromCol = Board.col(Move.from(move));
+        this.toRow = Board.row(Move.to(move));
+        this.toCol = Board.col(Move.to(move));
+        this.destroyed = destroyed;
+        this.spawned = spawned;
+        this.turn = turn;
+    }
+
+    /**
+     * Builds the delta of a move from the position before it, the position after it
+     * and the removed mask that Rules.apply returned.
+     */
+    public static MoveEvent of(Long gameId, long seq, Long playerId, int move,
+                               Board before, Board after, long removed) {
+        List<int[]> destroyed = new ArrayList<>(Long.bitCount(removed));
+        for (long m = removed; m != 0; m &= m - 1) {
+            int sq = Long.numberOfTrailingZeros(m);
+            destroyed.add(new int[]{Board.row(sq), Board.col(sq)});
+        }
+
+        List<Spawn> spawned = new ArrayList<>(0);
+        if (!Move.isActivation(move)) {
+            // crystals the stepping piece carried are not new
+            long moved = (1L << Move.from(move)) | (1L << Move.to(move));
+            long fresh = (after.getQuad() & ~carried(before.getQuad(), move, moved))
+                    | (after.getStar() & ~carried(before.getStar(), move, moved))
+                    | (after.getHexa() & ~carried(before.getHexa(), move, moved));
+            for (long m = fresh; m != 0; m &= m - 1) {
+                int sq = Long.numberOfTrailingZeros(m);
+                spawned.add(new Spawn(Board.row(sq), Board.col(sq), after.pieceAt(sq)));
+            }
+        }
+        return new MoveEvent(gameId, seq, playerId, move, destroyed, spawned, Board.colorName(after.getTurn()));
+    }
+
+    private static long carried(long mask, int move, long moved) {
+        return (mask & (1L << Move.from(move))) != 0 ? mask ^ moved : mask;
+    }
+
+    @Getter
+    public static class Spawn {
+        private final int row;
+        private final int col;
+        private final String piece;
+
+        public Spawn(int row, int col, String piece) {
+            this.row = row;
+            this.col = col;
+            this.piece = piece;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.shanks.game.boardgame_backend.dto.event;
+
+import com.shanks.game.boardgame_backend.dto.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/** Public part of a user that game events carry (never the password hash or email). */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerView {
+
+    private Long id;
+    private String username;
+    private String profilePictureUrl;
+    private int rankPoints;
+    private int currentRank;
+
+    public static PlayerView of(User user) {
+        if (user == null) return null;
+        return new PlayerView(user.getId(), user.getUsername(), user.getProfilePictureUrl(),
+                user.getRankPoints(), user.getCurrentRank());
+    }
+}
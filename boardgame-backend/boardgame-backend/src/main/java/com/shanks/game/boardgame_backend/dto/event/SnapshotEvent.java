@@ -0,0 +1,25 @@
+package com.shanks.game.boardgame_backend.dto.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.BoardJson;
+import lombok.Getter;
+
+/**
+ * Full board, sent when a player joins or asks for it.
+ * It reflects every event up to and including seq; MOVE events with a higher seq apply on top of it.
+ */
+@Getter
+public class SnapshotEvent extends GameEvent {
+
+    private final JsonNode board;
+    private final String turn;
+    private final Long lastPlayerId;
+
+    public SnapshotEvent(Long gameId, long seq, Board board, Long lastPlayerId) {
+        super("SNAPSHOT", gameId, seq);
+        this.board = BoardJson.toNode(board).get("board");
+        this.turn = Board.colorName(board.getTurn());
+        this.lastPlayerId = lastPlayerId;
+    }
+}
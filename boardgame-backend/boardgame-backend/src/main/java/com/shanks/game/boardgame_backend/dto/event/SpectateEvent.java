@@ -0,0 +1,23 @@
+package com.shanks.game.boardgame_backend.dto.event;
+
+import lombok.Getter;
+
+/**
+ * Everything a spectator needs, sent on /topic/spectate/{gameId}: seats and status, the whole board
+ * and how many are watching. Each frame replaces the previous one, so frames a slow spectator
+ * had not received yet are simply skipped. seq is that of the newest game event it includes.
+ */
+@Getter
+public class SpectateEvent extends GameEvent {
+
+    private final int spectators;
+    private final StatusEvent status;
+    private final SnapshotEvent snapshot;
+
+    public SpectateEvent(Long gameId, StatusEvent status, SnapshotEvent snapshot, int spectators) {
+        super("SPECTATE", gameId, Math.max(status != null ? status.getSeq() : 0, snapshot != null ? snapshot.getSeq() : 0));
+        this.spectators = spectators;
+        this.status = status;
+        this.snapshot = snapshot;
+    }
+}
@@ -0,0 +1,24 @@
+package com.shanks.game.boardgame_backend.dto.event;
+
+import com.shanks.game.boardgame_backend.dto.entity.Game;
+import lombok.Getter;
+
+/** Seats and status of a game (join, start, finish), with players reduced to {@link PlayerView}. */
+@Getter
+public class StatusEvent extends GameEvent {
+
+    private final Long id;
+    private final String status;
+    private final PlayerView player1;
+    private final PlayerView player2;
+    private final PlayerView winner;
+
+    public StatusEvent(Game game, long seq) {
+        super("STATUS", game.getId(), seq);
+        this.id = game.getId();
+        this.status = game.getStatus();
+        this.player1 = PlayerView.of(game.getPlayer1());
+        this.player2 = PlayerView.of(game.getPlayer2());
+        this.winner = PlayerView.of(game.getWinner());
+    }
+}
@@ -0,0 +1,38 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import lombok.Getter;
+
+/**
+ * Opening book suggestion for a game's current position, in the same shape as a move sent over the socket.
+ * inBook is false, and the move fields are 0, once the game has left the book.
+ */
+@Getter
+public class BookMove {
+
+    private final Long gameId;
+    private final String turn;
+    private final boolean inBook;
+    private final boolean activation;
+    private final int fromRow;
+    private final int fromCol;
+    private final int toRow;
+    private final int toCol;
+    // search score for the side to move, in hundredths of a stone
+    private final int score;
+    private final int depth;
+
+    public BookMove(Long gameId, int turn, int move, int score, int depth) {
+        this.gameId = gameId;
+        this.turn = Board.colorName(turn);
+        this.inBook = move != Move.NONE;
+        this.activation = inBook && Move.isActivation(move);
+        this.fromRow = inBook ? Board.row(Move.from(move)) : 0;
+        this.fromCol = inBook ? Board.col(Move.from(move)) : 0;
+        this.toRow = inBook ? Board.row(Move.to(move)) : 0;
+        this.toCol = inBook ? Board.col(Move.to(move)) : 0;
+        this.score = score;
+        this.depth = depth;
+    }
+}
@@ -0,0 +1,20 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Search effort of the bot since startup, to tune threads and move time against playing strength. */
+@Getter
+@AllArgsConstructor
+public class BotStats {
+
+    private final int threads;
+    private final long moveTimeMs;
+    private final long searches;
+    private final long nodes;
+    private final long nodesPerSecond;
+    private final int lastDepth;
+    private final long lastNodesPerSecond;
+    private final long cacheHits;
+    private final long bookMoves;
+}
@@ -0,0 +1,19 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Counters of an in-process cache since startup; hitRate is hits / (hits + misses). */
+@Getter
+@AllArgsConstructor
+public class CacheStats {
+
+    private final String name;
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final double hitRate;
+}
@@ -0,0 +1,16 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/** Newest games first; pass nextCursor as before to get the next page, null on the last page. */
+@Getter
+@AllArgsConstructor
+public class GameHistoryPage {
+
+    private final int size;
+    private final Long nextCursor;
+    private final List<GameSummary> games;
+}
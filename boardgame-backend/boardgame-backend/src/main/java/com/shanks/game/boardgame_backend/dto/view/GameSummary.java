@@ -0,0 +1,19 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/** Flat history entry; result is WIN, LOSS or DRAW once the game is finished, null before. */
+@Getter
+@AllArgsConstructor
+public class GameSummary {
+
+    private final Long gameId;
+    private final Long opponentId;
+    private final String opponentUsername;
+    private final String result;
+    private final String status;
+    private final LocalDateTime playedAt;
+}
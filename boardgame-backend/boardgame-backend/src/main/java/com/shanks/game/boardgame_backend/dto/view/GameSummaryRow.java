@@ -0,0 +1,19 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import java.time.LocalDateTime;
+
+/** One game of a player's history as read by the history query, seen from that player's side. */
+public interface GameSummaryRow {
+
+    Long getId();
+
+    String getStatus();
+
+    LocalDateTime getCreatedAt();
+
+    Long getOpponentId();
+
+    String getOpponentUsername();
+
+    Long getWinnerId();
+}
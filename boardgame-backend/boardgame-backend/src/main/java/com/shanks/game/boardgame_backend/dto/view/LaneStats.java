@@ -0,0 +1,16 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Queue of one game lane: tasks waiting now, the most ever waiting, and tasks run since startup. */
+@Getter
+@AllArgsConstructor
+public class LaneStats {
+
+    private final int lane;
+    private final int depth;
+    private final int maxDepth;
+    private final boolean busy;
+    private final long executed;
+}
@@ -0,0 +1,17 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import com.shanks.game.boardgame_backend.ranking.RankIndex;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class LeaderboardPage {
+
+    private final int page;
+    private final int size;
+    private final int totalPlayers;
+    private final List<RankIndex.Entry> entries;
+}
@@ -0,0 +1,34 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.shanks.game.boardgame_backend.dto.entity.Game;
+import com.shanks.game.boardgame_backend.matchmaking.MatchTicket;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Where a player stands in matchmaking: NONE, QUEUED or MATCHED (with the game to join). */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MatchStatus {
+
+    private final Long userId;
+    private final String status;
+    private final Integer rating;
+    private final Long waitedMs;
+    private final Long gameId;
+
+    public static MatchStatus none(Long userId) {
+        return new MatchStatus(userId, "NONE", null, null, null);
+    }
+
+    public static MatchStatus queued(MatchTicket ticket) {
+        return new MatchStatus(ticket.getUserId(), "QUEUED", ticket.getRating(),
+                System.currentTimeMillis() - ticket.getEnqueuedAt(), null);
+    }
+
+    public static MatchStatus matched(MatchTicket ticket, Game game) {
+        return new MatchStatus(ticket.getUserId(), "MATCHED", ticket.getRating(),
+                System.currentTimeMillis() - ticket.getEnqueuedAt(), game.getId());
+    }
+}
@@ -0,0 +1,23 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.BoardJson;
+import lombok.Getter;
+
+/** A game's board after a given number of moves, in the client's JSON board format. */
+@Getter
+public class PositionView {
+
+    private final Long gameId;
+    private final int ply;
+    private final String turn;
+    private final JsonNode board;
+
+    public PositionView(Long gameId, int ply, Board board) {
+        this.gameId = gameId;
+        this.ply = ply;
+        this.turn = Board.colorName(board.getTurn());
+        this.board = BoardJson.toNode(board).get("board");
+    }
+}
@@ -0,0 +1,19 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Spectator fan-out since startup: frames built (one per watched game and interval), frames written to
+ * sessions, and frames a slow spectator skipped because a newer one replaced them.
+ */
+@Getter
+@AllArgsConstructor
+public class SpectateStats {
+
+    private final int games;
+    private final int spectators;
+    private final long frames;
+    private final long sent;
+    private final long coalesced;
+}
@@ -0,0 +1,21 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Endgame tablebase answer for a game's current position, from the side to move's point of view.
+ * covered is false (and result null) when no table holds the position, e.g. while crystals are on the board.
+ */
+@Getter
+@AllArgsConstructor
+public class TablebaseProbe {
+
+    private final Long gameId;
+    private final String turn;
+    private final boolean covered;
+    // WIN, DRAW, LOSS or UNKNOWN
+    private final String result;
+    // plies to the end of the game with best play; 0 for draws
+    private final int plies;
+}
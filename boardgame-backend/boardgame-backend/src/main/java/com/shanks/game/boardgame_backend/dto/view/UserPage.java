@@ -0,0 +1,16 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/** One page of users ordered by id; pass nextCursor as after to get the next one, null on the last page. */
+@Getter
+@AllArgsConstructor
+public class UserPage {
+
+    private final int size;
+    private final Long nextCursor;
+    private final List<UserSummary> users;
+}
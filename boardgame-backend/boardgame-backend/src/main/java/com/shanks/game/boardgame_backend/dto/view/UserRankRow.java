@@ -0,0 +1,11 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+/** The three columns the leaderboard index needs per user. */
+public interface UserRankRow {
+
+    Long getId();
+
+    String getUsername();
+
+    int getRankPoints();
+}
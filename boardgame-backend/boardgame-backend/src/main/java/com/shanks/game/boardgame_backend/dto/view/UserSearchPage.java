@@ -0,0 +1,18 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import com.shanks.game.boardgame_backend.usernames.UsernameIndex;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class UserSearchPage {
+
+    private final String query;
+    private final int page;
+    private final int size;
+    private final int totalMatches;
+    private final List<UsernameIndex.Hit> hits;
+}
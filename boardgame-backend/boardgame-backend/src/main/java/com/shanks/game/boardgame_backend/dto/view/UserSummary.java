@@ -0,0 +1,16 @@
+package com.shanks.game.boardgame_backend.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Public listing columns of a user; never carries the email or the password hash. */
+@Getter
+@AllArgsConstructor
+public class UserSummary {
+
+    private final Long id;
+    private final String username;
+    private final int rankPoints;
+    private final int currentRank;
+    private final String profilePictureUrl;
+}
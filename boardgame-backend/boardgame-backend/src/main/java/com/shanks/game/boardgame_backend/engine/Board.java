@@ -0,0 +1,241 @@
+package com.shanks.game.boardgame_backend.engine;
+
+/**
+ * 8x8 CrysChess position stored as 64-bit masks.
+ * Square index is row * 8 + col, so bit 0 is the top-left cell (row 0 is red's home row).
+ * A crystal bit is always also set in exactly one of the colour masks.
+ */
+public final class Board {
+
+    public static final int SIZE = 8;
+    public static final int RED = 0;
+    public static final int BLUE = 1;
+
+    long red;
+    long blue;
+    long quad;
+    long star;
+    long hexa;
+    int turn;
+    // Zobrist key of the above, kept in step by every mutation
+    long key;
+
+    public Board() {
+    }
+
+    public Board(long red, long blue, long quad, long star, long hexa, int turn) {
+        this.red = red;
+        this.blue = blue;
+        this.quad = quad;
+        this.star = star;
+        this.hexa = hexa;
+        this.turn = turn;
+        this.key = Zobrist.of(this);
+    }
+
+    /** Overwrites the whole position, for tools that walk many positions on one board. */
+    public void set(long red, long blue, long quad, long star, long hexa, int turn) {
+        this.red = red;
+        this.blue = blue;
+        this.quad = quad;
+        this.star = star;
+        this.hexa = hexa;
+        this.turn = turn;
+        this.key = Zobrist.of(this);
+    }
+
+    // same layout as createInitialBoard in GameBoard.jsx: two rows of red on top, two rows of blue at the bottom
+    public static Board initial() {
+        return new Board(0x000000000000FFFFL, 0xFFFF000000000000L, 0L, 0L, 0L, RED);
+    }
+
+    public static int square(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    public static int row(int sq) {
+        return sq >>> 3;
+    }
+
+    public static int col(int sq) {
+        return sq & 7;
+    }
+
+    public static int opponent(int color) {
+        return color ^ 1;
+    }
+
+    public long colorMask(int color) {
+        return color == RED ? red : blue;
+    }
+
+    public long occupied() {
+        return red | blue;
+    }
+
+    public long crystals() {
+        return quad | star | hexa;
+    }
+
+    public long getRed() {
+        return red;
+    }
+
+    public long getBlue() {
+        return blue;
+    }
+
+    public long getQuad() {
+        return quad;
+    }
+
+    public long getStar() {
+        return star;
+    }
+
+    public long getHexa() {
+        return hexa;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public void setTurn(int turn) {
+        if (turn != this.turn) key ^= Zobrist.BLUE_TO_MOVE;
+        this.turn = turn;
+    }
+
+    public int stoneCount(int color) {
+        return Long.bitCount(colorMask(color));
+    }
+
+    /** Colour of the stone on sq, or -1 when the cell is empty. */
+    public int colorAt(int sq) {
+        long bit = 1L << sq;
+        if ((red & bit) != 0) return RED;
+        if ((blue & bit) != 0) return BLUE;
+        return -1;
+    }
+
+    // Zobrist.STONE, QUAD, STAR or HEXA for an occupied cell
+    int typeAt(int sq) {
+        long bit = 1L << sq;
+        if ((quad & bit) != 0) return Zobrist.QUAD;
+        if ((star & bit) != 0) return Zobrist.STAR;
+        if ((hexa & bit) != 0) return Zobrist.HEXA;
+        return Zobrist.STONE;
+    }
+
+    /** Cell value as the frontend spells it: "red", "blue-quad", ... or null for empty. */
+    public String pieceAt(int sq) {
+        int color = colorAt(sq);
+        if (color < 0) return null;
+        String base = colorName(color);
+        long bit = 1L << sq;
+        if ((quad & bit) != 0) return base + "-quad";
+        if ((star & bit) != 0) return base + "-star";
+        if ((hexa & bit) != 0) return base + "-hexa";
+        return base;
+    }
+
+    /** Places a piece using the frontend's cell spelling; null clears the cell. */
+    public void setPiece(int sq, String piece) {
+        long bit = 1L << sq;
+        long clear = ~bit;
+        int oldColor = colorAt(sq);
+        if (oldColor >= 0) key ^= Zobrist.piece(oldColor, typeAt(sq), sq);
+        red &= clear;
+        blue &= clear;
+        quad &= clear;
+        star &= clear;
+        hexa &= clear;
+        if (piece == null || piece.isEmpty()) return;
+
+        int dash = piece.indexOf('-');
+        String base = dash < 0 ? piece : piece.substring(0, dash);
+        if ("red".equals(base)) red |= bit;
+        else if ("blue".equals(base)) blue |= bit;
+        else throw new IllegalArgumentException("Unknown piece: " + piece);
+
+        if (dash >= 0) {
+            switch (piece.substring(dash + 1)) {
+                case "quad" -> quad |= bit;
+                case "star" -> star |= bit;
+                case "hexa" -> hexa |= bit;
+                default -> {
+                    red &= clear;
+                    blue &= clear;
+                    throw new IllegalArgumentException("Unknown piece: " + piece);
+                }
+            }
+        }
+        key ^= Zobrist.piece(colorAt(sq), typeAt(sq), sq);
+    }
+
+    public static String colorName(int color) {
+        return color == RED ? "red" : "blue";
+    }
+
+    public static int parseColor(String name) {
+        if ("red".equalsIgnoreCase(name)) return RED;
+        if ("blue".equalsIgnoreCase(name)) return BLUE;
+        throw new IllegalArgumentException("Unknown colour: " + name);
+    }
+
+    public Board copy() {
+        return new Board(red, blue, quad, star, hexa, turn);
+    }
+
+    public void copyFrom(Board other) {
+        red = other.red;
+        blue = other.blue;
+        quad = other.quad;
+        star = other.star;
+        hexa = other.hexa;
+        turn = other.turn;
+        key = other.key;
+    }
+
+    /** Zobrist key of the position (pieces and side to move), maintained incrementally. */
+    public long hash() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Board b)) return false;
+        return red == b.red && blue == b.blue && quad == b.quad
+                && star == b.star && hexa == b.hexa && turn == b.turn;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = red * 31 + blue;
+        h = h * 31 + quad;
+        h = h * 31 + star;
+        h = h * 31 + hexa;
+        return (int) (h ^ (h >>> 32)) * 31 + turn;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                int sq = square(r, c);
+                int color = colorAt(sq);
+                char ch = '.';
+                if (color >= 0) {
+                    long bit = 1L << sq;
+                    ch = (quad & bit) != 0 ? 'q' : (star & bit) != 0 ? 's' : (hexa & bit) != 0 ? 'h' : 'o';
+                    if (color == RED) ch = Character.toUpperCase(ch);
+                }
+                sb.append(ch);
+            }
+            sb.append('\n');
+        }
+        return sb.append("turn=").append(colorName(turn)).toString();
+    }
+}
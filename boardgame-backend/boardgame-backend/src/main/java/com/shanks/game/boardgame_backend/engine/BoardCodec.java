@@ -0,0 +1,70 @@
+package com.shanks.game.boardgame_backend.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary storage format for a board, version 1 (34 bytes, big-endian):
+ * <pre>
+ *   [0]      format version
+ *   [1]      side to move (0 red, 1 blue)
+ *   [2..9]   red stones
+ *   [10..17] blue stones
+ *   [18..25] crystal plane 0 (quad | hexa)
+ *   [26..33] crystal plane 1 (star | hexa)
+ * </pre>
+ * The two planes give each crystal a 2-bit type: 01 quad, 10 star, 11 hexa.
+ */
+public final class BoardCodec {
+
+    public static final byte VERSION = 1;
+    public static final int LENGTH = 34;
+
+    private BoardCodec() {
+    }
+
+    public static byte[] encode(Board b) {
+        byte[] out = new byte[LENGTH];
+        ByteBuffer.wrap(out)
+                .put(VERSION)
+                .put((byte) b.turn)
+                .putLong(b.red)
+                .putLong(b.blue)
+                .putLong(b.quad | b.hexa)
+                .putLong(b.star | b.hexa);
+        return out;
+    }
+
+    public static Board decode(byte[] bytes) {
+        Board b = new Board();
+        decodeInto(bytes, b);
+        return b;
+    }
+
+    public static void decodeInto(byte[] bytes, Board b) {
+        if (bytes == null || bytes.length < 2) {
+            throw new IllegalArgumentException("Board data is empty");
+        }
+        if (bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported board format version " + bytes[0]);
+        }
+        if (bytes.length != LENGTH) {
+            throw new IllegalArgumentException("Board data must be " + LENGTH + " bytes");
+        }
+        ByteBuffer buf = ByteBuffer.wrap(bytes, 1, LENGTH - 1);
+        int turn = buf.get();
+        long red = buf.getLong();
+        long blue = buf.getLong();
+        long plane0 = buf.getLong();
+        long plane1 = buf.getLong();
+        if ((red & blue) != 0 || ((plane0 | plane1) & ~(red | blue)) != 0 || (turn & ~1) != 0) {
+            throw new IllegalArgumentException("Corrupt board data");
+        }
+        b.red = red;
+        b.blue = blue;
+        b.quad = plane0 & ~plane1;
+        b.star = plane1 & ~plane0;
+        b.hexa = plane0 & plane1;
+        b.turn = turn;
+        b.key = Zobrist.of(b);
+    }
+}
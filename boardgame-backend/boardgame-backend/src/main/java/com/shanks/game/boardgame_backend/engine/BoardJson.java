@@ -0,0 +1,73 @@
+package com.shanks.game.boardgame_backend.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Converts between {@link Board} and the JSON the client uses: { "turn": "red", "board": [[...8 cells...] x8] }.
+ */
+public final class BoardJson {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BoardJson() {
+    }
+
+    public static Board read(String json) {
+        try {
+            return read(objectMapper.readTree(json));
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid board JSON", e);
+        }
+    }
+
+    public static Board read(JsonNode root) {
+        JsonNode rows = root.has("board") ? root.get("board") : root;
+        if (rows == null || !rows.isArray() || rows.size() != Board.SIZE) {
+            throw new IllegalArgumentException("Board must have " + Board.SIZE + " rows");
+        }
+        Board board = new Board();
+        for (int r = 0; r < Board.SIZE; r++) {
+            JsonNode row = rows.get(r);
+            if (!row.isArray() || row.size() != Board.SIZE) {
+                throw new IllegalArgumentException("Row " + r + " must have " + Board.SIZE + " cells");
+            }
+            for (int c = 0; c < Board.SIZE; c++) {
+                JsonNode cell = row.get(c);
+                board.setPiece(Board.square(r, c), cell == null || cell.isNull() ? null : cell.asText());
+            }
+        }
+        JsonNode turn = root.get("turn");
+        board.setTurn(turn == null || turn.isNull() ? Board.RED : Board.parseColor(turn.asText()));
+        return board;
+    }
+
+    public static ObjectNode toNode(Board board) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("turn", Board.colorName(board.getTurn()));
+        ArrayNode rows = objectMapper.createArrayNode();
+        for (int r = 0; r < Board.SIZE; r++) {
+            ArrayNode row = objectMapper.createArrayNode();
+            for (int c = 0; c < Board.SIZE; c++) {
+                String piece = board.pieceAt(Board.square(r, c));
+                if (piece == null) row.addNull();
+                else row.add(piece);
+            }
+            rows.add(row);
+        }
+        root.set("board", rows);
+        return root;
+    }
+
+    public static String write(Board board) {
+        try {
+            return objectMapper.writeValueAsString(toNode(board));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.shanks.game.boardgame_backend.engine;
+
+/**
+ * Moves are packed into an int so the engine never allocates per move:
+ * bits 0-5 from square, bits 6-11 to square, bit 12 set for a crystal activation
+ * (activations use from == to == the crystal's square).
+ */
+public final class Move {
+
+    public static final int NONE = -1;
+
+    private static final int ACTIVATE_FLAG = 1 << 12;
+
+    private Move() {
+    }
+
+    public static int step(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int activate(int sq) {
+        return sq | (sq << 6) | ACTIVATE_FLAG;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static boolean isActivation(int move) {
+        return (move & ACTIVATE_FLAG) != 0;
+    }
+
+    public static String toString(int move) {
+        if (move == NONE) return "none";
+        int from = from(move);
+        if (isActivation(move)) {
+            return "activate(" + Board.row(from) + "," + Board.col(from) + ")";
+        }
+        int to = to(move);
+        return "(" + Board.row(from) + "," + Board.col(from) + ")->(" + Board.row(to) + "," + Board.col(to) + ")";
+    }
+}
@@ -0,0 +1,54 @@
+package com.shanks.game.boardgame_backend.engine;
+
+/**
+ * Lists every legal move of the side to move into a caller-owned array, so search loops never allocate.
+ * Order: for each own stone (lowest square first) its steps, then its activation if it is a crystal with targets.
+ */
+public final class MoveGenerator {
+
+    /** Enough for any position: at most four steps and one activation per stone. */
+    public static final int MAX_MOVES = 5 * 64;
+
+    private MoveGenerator() {
+    }
+
+    public static int generate(Board b, int[] out) {
+        int n = 0;
+        long empty = ~b.occupied();
+        long crystals = b.crystals();
+        long stones = b.colorMask(b.turn);
+        while (stones != 0) {
+            int from = Long.numberOfTrailingZeros(stones);
+            stones &= stones - 1;
+            long targets = Rules.NEIGHBOURS[from] & empty;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                out[n++] = Move.step(from, to);
+            }
+            if ((crystals & (1L << from)) != 0 && Rules.activationTargets(b, from) != 0) {
+                out[n++] = Move.activate(from);
+            }
+        }
+        return n;
+    }
+
+    /** Same number as {@link #generate} returns, counted from the masks without listing the moves. */
+    public static int count(Board b) {
+        int n = 0;
+        long empty = ~b.occupied();
+        long stones = b.colorMask(b.turn);
+        long crystals = stones & b.crystals();
+        while (stones != 0) {
+            int from = Long.numberOfTrailingZeros(stones);
+            stones &= stones - 1;
+            n += Long.bitCount(Rules.NEIGHBOURS[from] & empty);
+        }
+        while (crystals != 0) {
+            int from = Long.numberOfTrailingZeros(crystals);
+            crystals &= crystals - 1;
+            if (Rules.activationTargets(b, from) != 0) n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,17 @@
+package com.shanks.game.boardgame_backend.engine;
+
+public enum Outcome {
+    ONGOING,
+    RED_WINS,
+    BLUE_WINS,
+    DRAW;
+
+    public boolean isFinished() {
+        return this != ONGOING;
+    }
+
+    /** Winning colour, or -1 for a draw or an unfinished game. */
+    public int winner() {
+        return this == RED_WINS ? Board.RED : this == BLUE_WINS ? Board.BLUE : -1;
+    }
+}
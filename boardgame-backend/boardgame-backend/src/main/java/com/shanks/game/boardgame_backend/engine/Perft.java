@@ -0,0 +1,129 @@
+package com.shanks.game.boardgame_backend.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft: counts the positions reachable in exactly N moves, the reference figure for checking the move
+ * generator and {@link Rules} against the frontend, and a measure of how fast they are. A finished game
+ * (a side below {@link Rules#MIN_STONES}) has no successors, as the frontend stops there too.
+ *
+ * The top plies are split into fork-join tasks; below {@link #SPLIT_DEPTH} remaining plies a subtree is
+ * counted sequentially on its own preallocated board stack, and the last ply is counted, not played.
+ *
+ * From the command line: {@code java -cp target/classes:<jackson> ...engine.Perft <depth> [threads] [board json]}.
+ */
+public final class Perft {
+
+    /** Subtrees with this many plies or fewer left are not split further. */
+    static final int SPLIT_DEPTH = 3;
+
+    public record Result(int depth, long positions, long elapsedNanos, int threads) {
+
+        public long positionsPerSecond() {
+            return elapsedNanos == 0 ? 0 : positions * 1_000_000_000L / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "perft(" + depth + ") = " + positions + " in " + elapsedNanos / 1_000_000L + " ms, "
+                    + positionsPerSecond() + " positions/s on " + threads + " threads";
+        }
+    }
+
+    private Perft() {
+    }
+
+    /** Single-threaded count. */
+    public static long count(Board root, int depth) {
+        return new Counter(depth).count(root, depth);
+    }
+
+    /** Count on the given pool, with timing. */
+    public static Result run(Board root, int depth, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        long positions = pool.invoke(new Subtree(root.copy(), depth));
+        return new Result(depth, positions, System.nanoTime() - start, pool.getParallelism());
+    }
+
+    private static final class Subtree extends RecursiveTask<Long> {
+
+        private final Board board;
+        private final int depth;
+
+        Subtree(Board board, int depth) {
+            this.board = board;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SPLIT_DEPTH) return count(board, depth);
+            if (Rules.outcome(board).isFinished()) return 0L;
+
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int n = MoveGenerator.generate(board, moves);
+            List<Subtree> children = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Board child = board.copy();
+                Rules.apply(child, moves[i]);
+                children.add(new Subtree(child, depth - 1));
+            }
+            long total = 0;
+            for (Subtree child : invokeAll(children)) total += child.join();
+            return total;
+        }
+    }
+
+    // one board and move list per ply, reused across the whole subtree
+    private static final class Counter {
+
+        private final Board[] stack;
+        private final int[][] moves;
+
+        Counter(int depth) {
+            stack = new Board[depth + 1];
+            moves = new int[depth + 1][MoveGenerator.MAX_MOVES];
+            for (int i = 0; i <= depth; i++) stack[i] = new Board();
+        }
+
+        long count(Board root, int depth) {
+            if (depth == 0) return 1;
+            stack[depth].copyFrom(root);
+            return count(depth);
+        }
+
+        private long count(int depth) {
+            Board b = stack[depth];
+            if (Rules.outcome(b).isFinished()) return 0;
+            if (depth == 1) return MoveGenerator.count(b);
+
+            int[] list = moves[depth];
+            int n = MoveGenerator.generate(b, list);
+            Board child = stack[depth - 1];
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                child.copyFrom(b);
+                Rules.apply(child, list[i]);
+                total += count(depth - 1);
+            }
+            return total;
+        }
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Board root = args.length > 2 ? BoardJson.read(args[2]) : Board.initial();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int d = 1; d <= depth; d++) {
+                System.out.println(run(root, d, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.shanks.game.boardgame_backend.engine;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size, direct-mapped cache of per-position results keyed by Zobrist key. A store simply replaces
+ * whatever shared the slot, so lookups and stores are O(1), lock free and never allocate beyond the entry.
+ * Entries carry the full key, so a hit is never another position's value (up to 64-bit collisions).
+ */
+public final class PositionCache<V> {
+
+    private record Entry<V>(long key, V value) {
+    }
+
+    private final AtomicReferenceArray<Entry<V>> slots;
+    private final int mask;
+
+    /** Capacity is rounded up to a power of two. */
+    public PositionCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public V get(long key) {
+        Entry<V> e = slots.get(index(key));
+        return e != null && e.key() == key ? e.value() : null;
+    }
+
+    public void put(long key, V value) {
+        slots.set(index(key), new Entry<>(key, value));
+    }
+
+    public void remove(long key) {
+        int i = index(key);
+        Entry<V> e = slots.get(i);
+        if (e != null && e.key() == key) slots.compareAndSet(i, e, null);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    private int index(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,83 @@
+package com.shanks.game.boardgame_backend.engine;
+
+import java.util.Arrays;
+
+/**
+ * Positions of one game since its last irreversible move, by Zobrist key, for the threefold-repetition
+ * draw. A move that destroys stones can never be undone, so the history starts over after one and
+ * only the reversible tail is ever kept. Counting is an open-addressing lookup, O(1) per move.
+ * Not thread safe; a game's history is only touched on its session mailbox.
+ */
+public final class PositionHistory {
+
+    private long[] keys = new long[64];
+    private int[] counts = new int[64];
+    private int distinct;
+
+    // the same keys in the order they were reached, for the search
+    private long[] sequence = new long[64];
+    private int length;
+
+    /** Records one more occurrence of the position and returns how often it has occurred now. */
+    public int add(long key) {
+        if (length == sequence.length) sequence = Arrays.copyOf(sequence, length * 2);
+        sequence[length++] = key;
+
+        if ((distinct + 1) * 2 > keys.length) grow();
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (counts[i] != 0) {
+            if (keys[i] == key) return ++counts[i];
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        counts[i] = 1;
+        distinct++;
+        return 1;
+    }
+
+    public int count(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); counts[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) return counts[i];
+        }
+        return 0;
+    }
+
+    /** Forgets everything, after an irreversible move. */
+    public void clear() {
+        if (distinct == 0) return;
+        Arrays.fill(counts, 0);
+        distinct = 0;
+        length = 0;
+    }
+
+    /** Keys from the oldest to the current position. */
+    public long[] positions() {
+        return Arrays.copyOf(sequence, length);
+    }
+
+    public int size() {
+        return length;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldCounts[j] == 0) continue;
+            int i = slot(oldKeys[j], mask);
+            while (counts[i] != 0) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            counts[i] = oldCounts[j];
+        }
+    }
+
+    // Zobrist keys are already uniform; fold the high bits in anyway
+    private static int slot(long key, int mask) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,237 @@
+package com.shanks.game.boardgame_backend.engine;
+
+/**
+ * Authoritative CrysChess rules, ported from GameBoard.jsx (checkAndDestroy and the activate* handlers).
+ * Everything works on the masks of {@link Board} and never allocates.
+ */
+public final class Rules {
+
+    /** A side with fewer stones than this has lost. */
+    public static final int MIN_STONES = 3;
+
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_H = 0x8080808080808080L;
+
+    static final long[] NEIGHBOURS = new long[64];
+    static final long[] AREA = new long[64];
+    static final long[] ROW = new long[64];
+    static final long[] COLUMN = new long[64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            int r = Board.row(sq);
+            int c = Board.col(sq);
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int rr = r + dr;
+                    int cc = c + dc;
+                    if (rr < 0 || rr >= Board.SIZE || cc < 0 || cc >= Board.SIZE) continue;
+                    long bit = 1L << Board.square(rr, cc);
+                    AREA[sq] |= bit;
+                    if (Math.abs(dr) + Math.abs(dc) == 1) NEIGHBOURS[sq] |= bit;
+                }
+            }
+            ROW[sq] = 0xFFL << (r * 8);
+            COLUMN[sq] = FILE_A << c;
+        }
+    }
+
+    private Rules() {
+    }
+
+    // col + 1
+    static long east(long x) {
+        return (x & ~FILE_H) << 1;
+    }
+
+    // col - 1
+    static long west(long x) {
+        return (x & ~FILE_A) >>> 1;
+    }
+
+    // row + 1
+    static long south(long x) {
+        return x << 8;
+    }
+
+    // row - 1
+    static long north(long x) {
+        return x >>> 8;
+    }
+
+    // "after" direction: right for rows, down for columns
+    private static long forward(long x, boolean horizontal) {
+        return horizontal ? east(x) : south(x);
+    }
+
+    private static long backward(long x, boolean horizontal) {
+        return horizontal ? west(x) : north(x);
+    }
+
+    private static long forward(long x, boolean horizontal, int n) {
+        for (int i = 0; i < n; i++) x = forward(x, horizontal);
+        return x;
+    }
+
+    public static boolean isLegal(Board b, int move) {
+        if (move == Move.NONE) return false;
+        int from = Move.from(move);
+        long own = b.colorMask(b.turn);
+        long fromBit = 1L << from;
+        if ((own & fromBit) == 0) return false;
+
+        if (Move.isActivation(move)) {
+            return Move.to(move) == from && activationTargets(b, from) != 0;
+        }
+        int to = Move.to(move);
+        return (NEIGHBOURS[from] & (1L << to) & ~b.occupied()) != 0;
+    }
+
+    /**
+     * Enemy stones an activation of the crystal on sq would destroy: quad clears the 3x3 around it,
+     * star its row, hexa its row and column. 0 when sq holds no crystal.
+     */
+    public static long activationTargets(Board b, int sq) {
+        long bit = 1L << sq;
+        int color = b.colorAt(sq);
+        if (color < 0) return 0L;
+        long enemy = b.colorMask(Board.opponent(color));
+        if ((b.quad & bit) != 0) return AREA[sq] & enemy;
+        if ((b.star & bit) != 0) return ROW[sq] & enemy;
+        if ((b.hexa & bit) != 0) return (ROW[sq] | COLUMN[sq]) & enemy;
+        return 0L;
+    }
+
+    /**
+     * Plays a move that passed {@link #isLegal} and hands the turn over.
+     * Returns the mask of cells that were cleared (destroyed stones plus a consumed crystal).
+     */
+    public static long apply(Board b, int move) {
+        int from = Move.from(move);
+        long removed;
+        if (Move.isActivation(move)) {
+            removed = activationTargets(b, from) | (1L << from);
+            clear(b, removed);
+        } else {
+            int to = Move.to(move);
+            long fromBit = 1L << from;
+            long toBit = 1L << to;
+            long both = fromBit | toBit;
+            int type = b.typeAt(from);
+            b.key ^= Zobrist.piece(b.turn, type, from) ^ Zobrist.piece(b.turn, type, to);
+            if (b.turn == Board.RED) b.red ^= both;
+            else b.blue ^= both;
+            if ((b.quad & fromBit) != 0) b.quad ^= both;
+            else if ((b.star & fromBit) != 0) b.star ^= both;
+            else if ((b.hexa & fromBit) != 0) b.hexa ^= both;
+            removed = resolveRuns(b);
+        }
+        b.turn ^= 1;
+        b.key ^= Zobrist.BLUE_TO_MOVE;
+        return removed;
+    }
+
+    /**
+     * Exact-run resolution after a stone move, mirroring checkAndDestroy:
+     * every run is detected on the board as it stands after the move, then the destroyed
+     * cells are cleared and the quad, star and hexa upgrades land in that order on surviving endpoints.
+     */
+    static long resolveRuns(Board b) {
+        long destroy = 0L;
+        long quadSpawn = 0L;
+        long starSpawn = 0L;
+        long hexaSpawn = 0L;
+
+        for (int pass = 0; pass < 4; pass++) {
+            boolean horizontal = (pass & 1) == 0;
+            long own = pass < 2 ? b.red : b.blue;
+            long enemy = pass < 2 ? b.blue : b.red;
+
+            // before: start square s has an enemy at s - 1; sameBefore: own stone at s - 1
+            long sameBefore = forward(own, horizontal);
+            long enemyBefore = forward(enemy, horizontal);
+
+            // starts[n] = squares s where s .. s + n - 1 are all own stones on the same line
+            long run = own;
+            long shifted = own;
+            long enemyAfter = enemy;
+            for (int n = 2; n <= 6; n++) {
+                shifted = backward(shifted, horizontal);
+                run &= shifted;
+                enemyAfter = backward(enemyAfter, horizontal);
+                if (n < 3) continue;
+
+                // exact length n: no own stone right before the start or right after the end
+                long sameAfter = backward(shifted, horizontal);
+                long exact = run & ~sameBefore & ~sameAfter;
+                if (exact == 0) {
+                    continue;
+                }
+                long nextEnemyAfter = backward(enemyAfter, horizontal);
+                long after = exact & nextEnemyAfter;
+                long before = exact & enemyBefore;
+
+                if (n == 3) {
+                    // triples hit both ends
+                    destroy |= backward(before, horizontal) | forward(after, horizontal, 3);
+                    continue;
+                }
+
+                // longer runs prefer the after side and upgrade the endpoint next to the destroyed enemy
+                before &= ~after;
+                destroy |= forward(after, horizontal, n) | backward(before, horizontal);
+                long spawn = forward(after, horizontal, n - 1) | before;
+                if (n == 4) quadSpawn |= spawn;
+                else if (n == 5) starSpawn |= spawn;
+                else hexaSpawn |= spawn;
+            }
+        }
+
+        if (destroy == 0 && (quadSpawn | starSpawn | hexaSpawn) == 0) return 0L;
+
+        clear(b, destroy);
+        upgrade(b, quadSpawn & ~destroy, 0);
+        upgrade(b, starSpawn & ~destroy, 1);
+        upgrade(b, hexaSpawn & ~destroy, 2);
+        return destroy;
+    }
+
+    private static void upgrade(Board b, long cells, int type) {
+        if (cells == 0) return;
+        for (long rest = cells; rest != 0; rest &= rest - 1) {
+            int sq = Long.numberOfTrailingZeros(rest);
+            int color = b.colorAt(sq);
+            b.key ^= Zobrist.piece(color, b.typeAt(sq), sq) ^ Zobrist.piece(color, type + 1, sq);
+        }
+        long keep = ~cells;
+        b.quad &= keep;
+        b.star &= keep;
+        b.hexa &= keep;
+        if (type == 0) b.quad |= cells;
+        else if (type == 1) b.star |= cells;
+        else b.hexa |= cells;
+    }
+
+    private static void clear(Board b, long cells) {
+        for (long rest = cells & b.occupied(); rest != 0; rest &= rest - 1) {
+            int sq = Long.numberOfTrailingZeros(rest);
+            b.key ^= Zobrist.piece(b.colorAt(sq), b.typeAt(sq), sq);
+        }
+        long keep = ~cells;
+        b.red &= keep;
+        b.blue &= keep;
+        b.quad &= keep;
+        b.star &= keep;
+        b.hexa &= keep;
+    }
+
+    /** Win check from GameBoard.jsx: fewer than three stones loses, both below three is a draw. */
+    public static Outcome outcome(Board b) {
+        boolean redOut = Long.bitCount(b.red) < MIN_STONES;
+        boolean blueOut = Long.bitCount(b.blue) < MIN_STONES;
+        if (redOut && blueOut) return Outcome.DRAW;
+        if (redOut) return Outcome.BLUE_WINS;
+        if (blueOut) return Outcome.RED_WINS;
+        return Outcome.ONGOING;
+    }
+}
@@ -0,0 +1,54 @@
+package com.shanks.game.boardgame_backend.engine;
+
+/**
+ * Zobrist keys of CrysChess positions: one random 64-bit key per (colour, piece type, square) plus one for
+ * blue to move. A position's key is the XOR of the keys of everything on it, so a move updates it by
+ * XOR-ing out and in only the cells it touches. The keys come from a fixed seed and are the same on every run.
+ */
+public final class Zobrist {
+
+    /** Piece types within a colour: plain stone and the three crystals. */
+    static final int STONE = 0;
+    static final int QUAD = 1;
+    static final int STAR = 2;
+    static final int HEXA = 3;
+
+    private static final long[] PIECE = new long[2 * 4 * 64];
+    static final long BLUE_TO_MOVE;
+
+    static {
+        long seed = 0x43727973436865L;
+        for (int i = 0; i < PIECE.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            PIECE[i] = mix(seed);
+        }
+        seed += 0x9E3779B97F4A7C15L;
+        BLUE_TO_MOVE = mix(seed);
+    }
+
+    private Zobrist() {
+    }
+
+    static long piece(int color, int type, int sq) {
+        return PIECE[((color << 2) | type) << 6 | sq];
+    }
+
+    /** Key computed from scratch; boards keep theirs up to date incrementally. */
+    public static long of(Board b) {
+        long key = b.turn == Board.BLUE ? BLUE_TO_MOVE : 0L;
+        long occupied = b.occupied();
+        while (occupied != 0) {
+            int sq = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            key ^= piece(b.colorAt(sq), b.typeAt(sq), sq);
+        }
+        return key;
+    }
+
+    // splitmix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,45 @@
+package com.shanks.game.boardgame_backend.execution;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * Which threads run request handling and the STOMP channels (app.execution.mode).
+ * PLATFORM keeps the Tomcat and Spring pools; VIRTUAL starts one virtual thread per request or message,
+ * so a handler blocked on MySQL costs no pool thread. Virtual threads need Java 21; on an older runtime
+ * VIRTUAL resolves to PLATFORM.
+ */
+public enum ExecutionMode {
+    PLATFORM, VIRTUAL;
+
+    public static ExecutionMode parse(String name) {
+        if (name == null || name.isBlank()) return PLATFORM;
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown execution mode: " + name);
+        }
+    }
+
+    /** The mode that will actually run on this JVM. */
+    public static ExecutionMode resolve(String name) {
+        ExecutionMode mode = parse(name);
+        return mode == VIRTUAL && !virtualThreadsAvailable() ? PLATFORM : mode;
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /** A new virtual thread per task, named prefix + counter. Only call when virtual threads are available. */
+    public static Executor virtualExecutor(String prefix) {
+        return new VirtualThreadTaskExecutor(prefix);
+    }
+}
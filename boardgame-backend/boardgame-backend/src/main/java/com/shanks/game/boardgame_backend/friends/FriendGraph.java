@@ -0,0 +1,126 @@
+package com.shanks.game.boardgame_backend.friends;
+
+import com.shanks.game.boardgame_backend.dao.repository.FriendRepository;
+import com.shanks.game.boardgame_backend.dto.entity.Friend;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user cache of friendship rows, loaded with two indexed queries (as sender, as receiver)
+ * and dropped for both users whenever one of their rows changes.
+ */
+@Component
+public class FriendGraph {
+
+    public static final String NOT_FRIENDS = "NOT_FRIENDS";
+
+    /** Every friendship row a user appears in, indexed for the lookups the service needs. */
+    public static final class Adjacency {
+
+        private final List<Friend> outgoing;
+        private final List<Friend> incoming;
+        private final Map<Long, String> statusByUser = new HashMap<>();
+        private final Set<Long> friendIds = new LinkedHashSet<>();
+
+        Adjacency(Long userId, List<Friend> outgoing, List<Friend> incoming) {
+            this.outgoing = Collections.unmodifiableList(outgoing);
+            this.incoming = Collections.unmodifiableList(incoming);
+            // the row this user sent wins over the one they received, as in checkFriendshipStatus
+            for (Friend f : incoming) statusByUser.put(f.getUserId(), f.getStatus());
+            for (Friend f : outgoing) statusByUser.put(f.getFriendId(), f.getStatus());
+            for (Friend f : outgoing) {
+                if ("ACCEPTED".equals(f.getStatus())) friendIds.add(f.getFriendId());
+            }
+            for (Friend f : incoming) {
+                if ("ACCEPTED".equals(f.getStatus())) friendIds.add(f.getUserId());
+            }
+        }
+
+        public String statusWith(Long otherId) {
+            return statusByUser.getOrDefault(otherId, NOT_FRIENDS);
+        }
+
+        public Set<Long> friendIds() {
+            return Collections.unmodifiableSet(friendIds);
+        }
+
+        public List<Friend> rows(String status, boolean sent, boolean received) {
+            List<Friend> out = new ArrayList<>();
+            if (received) {
+                for (Friend f : incoming) if (status.equals(f.getStatus())) out.add(f);
+            }
+            if (sent) {
+                for (Friend f : outgoing) if (status.equals(f.getStatus())) out.add(f);
+            }
+            return out;
+        }
+    }
+
+    @Autowired
+    private FriendRepository friendRepository;
+
+    @Value("${app.friends.cache-max-users:50000}")
+    private int maxUsers;
+
+    private final Map<Long, Adjacency> cache = new ConcurrentHashMap<>();
+    // bumped on every invalidation; a load that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public Adjacency of(Long userId) {
+        Adjacency cached = cache.get(userId);
+        if (cached != null) return cached;
+
+        long gen = generation.get();
+        Adjacency loaded = new Adjacency(userId,
+                friendRepository.findByUserId(userId),
+                friendRepository.findByFriendId(userId));
+        if (generation.get() == gen) {
+            if (cache.size() >= maxUsers) trim();
+            cache.putIfAbsent(userId, loaded);
+        }
+        return loaded;
+    }
+
+    public String status(Long userId, Long otherId) {
+        return of(userId).statusWith(otherId);
+    }
+
+    /** Friendship status of userId with each of otherIds, answered from one adjacency. */
+    public Map<Long, String> statuses(Long userId, List<Long> otherIds) {
+        Adjacency adjacency = of(userId);
+        Map<Long, String> out = new HashMap<>();
+        for (Long id : otherIds) {
+            out.put(id, adjacency.statusWith(id));
+        }
+        return out;
+    }
+
+    /** Call after a row between the two users was written, once it is committed. */
+    public void invalidate(Long userId, Long otherId) {
+        generation.incrementAndGet();
+        cache.remove(userId);
+        cache.remove(otherId);
+    }
+
+    // drops about a tenth of the entries; which ones does not matter much for a cache this cheap to refill
+    private void trim() {
+        int toDrop = Math.max(1, maxUsers / 10);
+        Iterator<Long> it = cache.keySet().iterator();
+        while (toDrop-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.shanks.game.boardgame_backend.images;
+
+import com.shanks.game.boardgame_backend.cache.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image files: an upload is streamed to disk while its SHA-256 is computed, and the
+ * hash names the file, so identical pictures are stored once and every URL points at bytes that never
+ * change. The small and medium thumbnails are written next to the original when it is stored.
+ * Small files are also kept in a hot LRU so popular avatars are answered from memory.
+ */
+@Component
+public class ImageStore {
+
+    public static final String URL_PREFIX = "/api/images/";
+
+    /** The stored renditions of an image; thumbnails are square JPEGs at most this many pixels wide. */
+    public enum Variant {
+        ORIGINAL(0), SMALL(64), MEDIUM(256);
+
+        final int size;
+
+        Variant(int size) {
+            this.size = size;
+        }
+
+        public static Variant parse(String name) {
+            if (name == null || name.isBlank()) return ORIGINAL;
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown image size: " + name);
+            }
+        }
+    }
+
+    /** One rendition on disk; the etag is derived from the hash, so it never has to read the file. */
+    public record ImageFile(String hash, Variant variant, Path path, String contentType, long length) {
+
+        public String etag() {
+            return "\"" + hash + "-" + variant.name().toLowerCase(Locale.ROOT) + "\"";
+        }
+    }
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final String[][] FORMATS = {{"jpeg", "jpg", "image/jpeg"}, {"png", "png", "image/png"}, {"gif", "gif", "image/gif"}};
+    // decoding is refused above this many pixels; thumbnails are decoded subsampled well below it
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    @Value("${app.images.dir:images}")
+    private String dir;
+
+    @Value("${app.images.max-bytes:5242880}")
+    private long maxBytes;
+
+    @Value("${app.images.hot-max-entries:512}")
+    private int hotMaxEntries;
+
+    @Value("${app.images.hot-max-bytes:65536}")
+    private int hotMaxBytes;
+
+    @Value("${app.images.hot-ttl-ms:3600000}")
+    private long hotTtlMs;
+
+    private Path root;
+    private BoundedCache<String, ImageFile> files;
+    private BoundedCache<String, byte[]> hot;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(dir).toAbsolutePath();
+        Files.createDirectories(root.resolve("tmp"));
+        // content never changes, so the lookups only age out to bound memory
+        files = new BoundedCache<>(Math.max(hotMaxEntries * 8, 1024), hotTtlMs);
+        hot = new BoundedCache<>(hotMaxEntries, hotTtlMs);
+    }
+
+    /**
+     * Streams the upload to a temporary file while hashing it, then decodes it into any missing thumbnails
+     * and only then moves it to its content address (or drops it when that image is already stored).
+     * An upload that cannot be decoded never gets an address, and nothing of it is left on disk.
+     */
+    public String store(InputStream in) throws IOException {
+        Path tmp = Files.createTempFile(root.resolve("tmp"), "upload", ".part");
+        try {
+            MessageDigest sha256 = sha256();
+            try (DigestInputStream digesting = new DigestInputStream(in, sha256);
+                 OutputStream out = Files.newOutputStream(tmp)) {
+                copy(digesting, out, maxBytes);
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            String[] format = detect(tmp);
+
+            Path original = path(hash, Variant.ORIGINAL, format[1]);
+            if (Files.exists(original)) {
+                writeThumbnails(hash, original);
+                return hash;
+            }
+            Files.createDirectories(original.getParent());
+            try {
+                writeThumbnails(hash, tmp);
+                moveIntoPlace(tmp, original);
+            } catch (IOException | RuntimeException e) {
+                // identical bytes fail the same way, so these can only be this upload's
+                Files.deleteIfExists(path(hash, Variant.MEDIUM, "jpg"));
+                Files.deleteIfExists(path(hash, Variant.SMALL, "jpg"));
+                throw e;
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** The rendition of a stored image, or null when there is none. */
+    public ImageFile find(String hash, Variant variant) {
+        if (hash == null || !HASH.matcher(hash).matches()) return null;
+        String key = hash + "-" + variant;
+        return files.get(key, k -> locate(hash, variant));
+    }
+
+    /** The whole file from the hot cache, loading it there when it is small enough; null for large files. */
+    public byte[] hotBytes(ImageFile file) throws IOException {
+        if (file.length() > hotMaxBytes) return null;
+        String key = file.hash() + "-" + file.variant();
+        byte[] bytes = hot.getIfPresent(key);
+        if (bytes == null) {
+            bytes = Files.readAllBytes(file.path());
+            hot.put(key, bytes);
+        }
+        return bytes;
+    }
+
+    public static String url(String hash) {
+        return URL_PREFIX + hash;
+    }
+
+    public static String url(String hash, Variant variant) {
+        return variant == Variant.ORIGINAL ? url(hash) : url(hash) + "/" + variant.name().toLowerCase(Locale.ROOT);
+    }
+
+    /** The hash in a URL produced by {@link #url}, or null for any other URL. */
+    public static String hashOf(String url) {
+        if (url == null) return null;
+        int at = url.indexOf(URL_PREFIX);
+        if (at < 0) return null;
+        String rest = url.substring(at + URL_PREFIX.length());
+        int end = rest.indexOf('/');
+        String hash = end < 0 ? rest : rest.substring(0, end);
+        return HASH.matcher(hash).matches() ? hash : null;
+    }
+
+    private ImageFile locate(String hash, Variant variant) {
+        try {
+            if (variant != Variant.ORIGINAL) {
+                Path thumb = path(hash, variant, "jpg");
+                return Files.isRegularFile(thumb)
+                        ? new ImageFile(hash, variant, thumb, "image/jpeg", Files.size(thumb)) : null;
+            }
+            for (String[] format : FORMATS) {
+                Path original = path(hash, variant, format[1]);
+                if (Files.isRegularFile(original)) {
+                    return new ImageFile(hash, variant, original, format[2], Files.size(original));
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // {root}/ab/abcdef...{-small}.ext, two hex digits of fan-out keep directories small
+    private Path path(String hash, Variant variant, String extension) {
+        String name = variant == Variant.ORIGINAL
+                ? hash + "." + extension
+                : hash + "-" + variant.name().toLowerCase(Locale.ROOT) + "." + extension;
+        return root.resolve(hash.substring(0, 2)).resolve(name);
+    }
+
+    private void writeThumbnails(String hash, Path source) throws IOException {
+        BufferedImage decoded = null;
+        for (Variant variant : new Variant[]{Variant.MEDIUM, Variant.SMALL}) {
+            Path target = path(hash, variant, "jpg");
+            if (Files.exists(target)) continue;
+            if (decoded == null) decoded = decode(source, Variant.MEDIUM.size);
+            Path tmp = Files.createTempFile(root.resolve("tmp"), "thumb", ".part");
+            try {
+                writeJpeg(squareThumbnail(decoded, variant.size), tmp);
+                moveIntoPlace(tmp, target);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    // reads the first frame, subsampled so its short side stays at or above minSide
+    private static BufferedImage decode(Path file, int minSide) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = reader(in);
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IllegalArgumentException("Image is too large");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.min(width, height) / (minSide * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static String[] detect(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = reader(in);
+            try {
+                String name = reader.getFormatName().toLowerCase(Locale.ROOT);
+                for (String[] format : FORMATS) {
+                    if (format[0].equals(name)) return format;
+                }
+                throw new IllegalArgumentException("Unsupported image format: " + name);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageReader reader(ImageInputStream in) {
+        if (in == null) throw new IllegalArgumentException("Not an image");
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) throw new IllegalArgumentException("Not an image");
+        return readers.next();
+    }
+
+    // centre crop to a square, then scale down to at most size pixels
+    static BufferedImage squareThumbnail(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        int target = Math.min(size, side);
+        BufferedImage out = new BufferedImage(target, target, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // transparent pixels end up white instead of black
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, target, target);
+            int x = (source.getWidth() - side) / 2;
+            int y = (source.getHeight() - side) / 2;
+            g.drawImage(source, 0, 0, target, target, x, y, x + side, y + side, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.85f);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // a concurrent upload of the same bytes may win the race; its file is identical, so that is fine
+    private static void moveIntoPlace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // already stored
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(tmp, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // already stored
+            }
+        }
+    }
+
+    // fixed 64 KB buffer, whatever the size of the upload
+    private static void copy(InputStream in, OutputStream out, long limit) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            total += n;
+            if (total > limit) throw new IllegalArgumentException("Image is larger than " + limit + " bytes");
+            out.write(buffer, 0, n);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
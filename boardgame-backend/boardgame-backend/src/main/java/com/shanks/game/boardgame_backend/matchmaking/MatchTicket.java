@@ -0,0 +1,82 @@
+package com.shanks.game.boardgame_backend.matchmaking;
+
+import com.shanks.game.boardgame_backend.dto.entity.Game;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One player waiting for an opponent. Its state only moves through compare-and-set, so the pairing pass,
+ * a cancel and a repeated enqueue can race on it without locks.
+ */
+public class MatchTicket {
+
+    static final int QUEUED = 0;
+    static final int CLAIMED = 1;
+    static final int MATCHED = 2;
+    static final int CANCELLED = 3;
+
+    private final long userId;
+    private final int rating;
+    private final long enqueuedAt;
+    private final AtomicInteger state = new AtomicInteger(QUEUED);
+    private final CompletableFuture<Game> result = new CompletableFuture<>();
+
+    MatchTicket(long userId, int rating, long enqueuedAt) {
+        this.userId = userId;
+        this.rating = rating;
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public long getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    /** Completes with the game once the ticket is paired. */
+    public CompletableFuture<Game> result() {
+        return result;
+    }
+
+    public boolean isQueued() {
+        return state.get() == QUEUED;
+    }
+
+    public boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+
+    // still able to end up in a game
+    boolean isLive() {
+        int s = state.get();
+        return s == QUEUED || s == CLAIMED;
+    }
+
+    boolean claim() {
+        return state.compareAndSet(QUEUED, CLAIMED);
+    }
+
+    void release() {
+        state.compareAndSet(CLAIMED, QUEUED);
+    }
+
+    boolean cancel() {
+        return state.compareAndSet(QUEUED, CANCELLED);
+    }
+
+    void matched(Game game) {
+        state.set(MATCHED);
+        result.complete(game);
+    }
+
+    void drop() {
+        state.set(CANCELLED);
+    }
+}
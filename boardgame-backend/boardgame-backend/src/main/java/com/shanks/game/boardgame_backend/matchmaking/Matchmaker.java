@@ -0,0 +1,207 @@
+package com.shanks.game.boardgame_backend.matchmaking;
+
+import com.shanks.game.boardgame_backend.dao.repository.UserRepository;
+import com.shanks.game.boardgame_backend.dao.service.GameService;
+import com.shanks.game.boardgame_backend.dto.entity.Game;
+import com.shanks.game.boardgame_backend.dto.entity.User;
+import com.shanks.game.boardgame_backend.dto.view.MatchStatus;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-memory matchmaking queue. Players wait in lock-free queues striped by rank points; a scheduled pass
+ * pairs neighbours whose ratings are within a window that widens the longer they wait, and only then
+ * creates the game rows, all in one batch. Enqueue and cancel are O(1) and never touch the database.
+ */
+@Component
+public class Matchmaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(Matchmaker.class);
+
+    @Value("${app.matchmaking.bucket-width:100}")
+    private int bucketWidth;
+
+    @Value("${app.matchmaking.buckets:32}")
+    private int bucketCount;
+
+    @Value("${app.matchmaking.initial-window:100}")
+    private int initialWindow;
+
+    @Value("${app.matchmaking.widen-per-second:50}")
+    private int widenPerSecond;
+
+    @Value("${app.matchmaking.max-window:1500}")
+    private int maxWindow;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final Map<Long, MatchTicket> tickets = new ConcurrentHashMap<>();
+    private List<ConcurrentLinkedQueue<MatchTicket>> buckets;
+
+    @PostConstruct
+    void init() {
+        buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /** Queues the player, or hands back the ticket they are already waiting on. */
+    public MatchTicket enqueue(User user) {
+        MatchTicket fresh = new MatchTicket(user.getId(), user.getRankPoints(), System.currentTimeMillis());
+        MatchTicket ticket = tickets.compute(user.getId(),
+                (id, current) -> current != null && current.isLive() ? current : fresh);
+        if (ticket == fresh) {
+            bucket(ticket).offer(ticket);
+        }
+        return ticket;
+    }
+
+    /** Takes the player out of the queue; false when they were not waiting or are already being paired. */
+    public boolean cancel(Long userId) {
+        MatchTicket ticket = tickets.get(userId);
+        if (ticket == null || !ticket.cancel()) return false;
+        // the dead ticket stays in its bucket until the next pass skips it
+        tickets.remove(userId, ticket);
+        return true;
+    }
+
+    public MatchStatus status(Long userId) {
+        MatchTicket ticket = tickets.get(userId);
+        return ticket != null && ticket.isLive() ? MatchStatus.queued(ticket) : MatchStatus.none(userId);
+    }
+
+    public int waitingCount() {
+        return tickets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.matchmaking.interval-ms:250}")
+    public void pairWaiting() {
+        long now = System.currentTimeMillis();
+
+        // drain every bucket; buckets are rating ranges, so walking them in order gives a sorted list
+        List<MatchTicket> waiting = new ArrayList<>();
+        for (ConcurrentLinkedQueue<MatchTicket> bucket : buckets) {
+            int start = waiting.size();
+            MatchTicket t;
+            while ((t = bucket.poll()) != null) {
+                if (t.isQueued()) waiting.add(t);
+            }
+            waiting.subList(start, waiting.size()).sort(Comparator.comparingInt(MatchTicket::getRating));
+        }
+        if (waiting.isEmpty()) return;
+
+        List<MatchTicket[]> pairs = new ArrayList<>();
+        MatchTicket pending = null;
+        for (MatchTicket t : waiting) {
+            if (pending != null
+                    && t.getRating() - pending.getRating() <= Math.min(window(pending, now), window(t, now))
+                    && pending.claim()) {
+                if (t.claim()) {
+                    // the player who waited longer plays red
+                    pairs.add(pending.getEnqueuedAt() <= t.getEnqueuedAt()
+                            ? new MatchTicket[]{pending, t} : new MatchTicket[]{t, pending});
+                    pending = null;
+                    continue;
+                }
+                pending.release();
+                continue;
+            }
+            pending = t;
+        }
+
+        if (!pairs.isEmpty()) {
+            startGames(pairs);
+        }
+        for (MatchTicket t : waiting) {
+            if (t.isQueued()) bucket(t).offer(t);
+        }
+    }
+
+    private void startGames(List<MatchTicket[]> pairs) {
+        List<Long> ids = new ArrayList<>(pairs.size() * 2);
+        for (MatchTicket[] pair : pairs) {
+            ids.add(pair[0].getUserId());
+            ids.add(pair[1].getUserId());
+        }
+        Map<Long, User> users = new HashMap<>();
+        List<MatchTicket[]> playable = new ArrayList<>(pairs.size());
+        List<Game> games = new ArrayList<>(pairs.size());
+        try {
+            userRepository.findAllById(ids).forEach(u -> users.put(u.getId(), u));
+            for (MatchTicket[] pair : pairs) {
+                User red = users.get(pair[0].getUserId());
+                User blue = users.get(pair[1].getUserId());
+                if (red == null || blue == null) {
+                    // account deleted while waiting
+                    forget(red == null ? pair[0] : pair[1]);
+                    pair[0].release();
+                    pair[1].release();
+                    continue;
+                }
+                playable.add(pair);
+                games.add(Game.builder()
+                        .player1(red)
+                        .player2(blue)
+                        .status("IN_PROGRESS")
+                        .boardState("{}")
+                        .build());
+            }
+            games = gameService.saveAll(games);
+        } catch (RuntimeException e) {
+            logger.warn("Could not start {} matched games, players stay queued: {}", pairs.size(), e.getMessage());
+            for (MatchTicket[] pair : pairs) {
+                pair[0].release();
+                pair[1].release();
+            }
+            return;
+        }
+
+        for (int i = 0; i < playable.size(); i++) {
+            Game game = games.get(i);
+            for (MatchTicket t : playable.get(i)) {
+                tickets.remove(t.getUserId(), t);
+                t.matched(game);
+                messagingTemplate.convertAndSendToUser(String.valueOf(t.getUserId()), "/queue/match",
+                        MatchStatus.matched(t, game));
+            }
+        }
+    }
+
+    private void forget(MatchTicket ticket) {
+        ticket.drop();
+        tickets.remove(ticket.getUserId(), ticket);
+    }
+
+    // how far apart two ratings may be after this ticket has waited until now
+    private int window(MatchTicket t, long now) {
+        long widened = initialWindow + widenPerSecond * ((now - t.getEnqueuedAt()) / 1000);
+        return (int) Math.min(maxWindow, widened);
+    }
+
+    private ConcurrentLinkedQueue<MatchTicket> bucket(MatchTicket t) {
+        int index = Math.max(0, t.getRating()) / bucketWidth;
+        return buckets.get(Math.min(index, bucketCount - 1));
+    }
+}
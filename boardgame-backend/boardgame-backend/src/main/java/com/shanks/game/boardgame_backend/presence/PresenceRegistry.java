@@ -0,0 +1,108 @@
+package com.shanks.game.boardgame_backend.presence;
+
+import com.shanks.game.boardgame_backend.config.PresenceMessage;
+import com.shanks.game.boardgame_backend.dao.service.FriendService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who is online, counted per user over all their open sockets (several tabs, SockJS reconnects).
+ * A change is announced only after it has held for the debounce window, so a quick
+ * disconnect/reconnect never reaches anyone, and it goes only to the user's friends that are online.
+ */
+@Component
+public class PresenceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceRegistry.class);
+
+    @Autowired
+    private FriendService friendService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Value("${app.presence.debounce-ms:1500}")
+    private long debounceMs;
+
+    // socket session id -> user, so a repeated or unknown disconnect never miscounts
+    private final Map<String, Long> sessionUsers = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> sessionCounts = new ConcurrentHashMap<>();
+    // users whose count crossed zero, with the time of the first crossing since the last announcement
+    private final Map<Long, Long> changed = new ConcurrentHashMap<>();
+    // what friends were last told; only touched by the flush
+    private final Set<Long> announcedOnline = ConcurrentHashMap.newKeySet();
+
+    public void connected(String sessionId, Long userId) {
+        if (userId == null || userId < 0 || sessionUsers.putIfAbsent(sessionId, userId) != null) return;
+        if (sessionCounts.merge(userId, 1, Integer::sum) == 1) {
+            changed.putIfAbsent(userId, System.currentTimeMillis());
+        }
+    }
+
+    public void disconnected(String sessionId) {
+        Long userId = sessionUsers.remove(sessionId);
+        if (userId == null) return;
+        if (sessionCounts.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null) == null) {
+            changed.putIfAbsent(userId, System.currentTimeMillis());
+        }
+    }
+
+    public boolean isOnline(Long userId) {
+        return sessionCounts.containsKey(userId);
+    }
+
+    /** The given users that have at least one open socket. */
+    public List<Long> online(Collection<Long> userIds) {
+        List<Long> online = new ArrayList<>();
+        for (Long id : userIds) {
+            if (sessionCounts.containsKey(id)) online.add(id);
+        }
+        return online;
+    }
+
+    public List<Long> onlineFriends(Long userId) {
+        return online(friendService.getFriendIds(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.presence.flush-interval-ms:250}")
+    public void flush() {
+        long cutoff = System.currentTimeMillis() - debounceMs;
+        for (Map.Entry<Long, Long> entry : changed.entrySet()) {
+            if (entry.getValue() > cutoff) continue;
+            Long userId = entry.getKey();
+            // remove before reading the count, so a crossing after this point records a fresh change
+            if (!changed.remove(userId, entry.getValue())) continue;
+
+            boolean online = sessionCounts.containsKey(userId);
+            // flipped back within the window: nothing to tell
+            if (online == announcedOnline.contains(userId)) continue;
+            if (online) announcedOnline.add(userId);
+            else announcedOnline.remove(userId);
+
+            try {
+                announce(userId, online);
+            } catch (RuntimeException e) {
+                logger.warn("Presence of user {} not announced: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    private void announce(Long userId, boolean online) {
+        PresenceMessage message = new PresenceMessage(userId, online);
+        for (Long friendId : onlineFriends(userId)) {
+            messagingTemplate.convertAndSendToUser(friendId.toString(), "/queue/presence", message);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.shanks.game.boardgame_backend.ranking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Order-statistic treap of players sorted by rank points (highest first), ties listed by lower id.
+ * Players with the same points share a rank, the way RANK() does: one plus the number of players ahead.
+ * Every node knows its subtree size, so inserting, moving a player and asking for a rank or a page
+ * all cost O(log n). Thread-safe: reads share a lock, writes are exclusive.
+ */
+public class RankIndex {
+
+    /** Immutable view of one ranked player. */
+    public record Entry(int rank, long userId, String username, int rankPoints) {
+    }
+
+    private static final class Node {
+        final long id;
+        final int points;
+        String username;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long id, int points, String username, int priority) {
+            this.id = id;
+            this.points = points;
+            this.username = username;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<Long, Node> byId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+    private long seed = 0x9E3779B97F4A7C15L;
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Inserts the player or moves them to their new score. */
+    public void put(long userId, String username, int rankPoints) {
+        lock.writeLock().lock();
+        try {
+            Node existing = byId.get(userId);
+            if (existing != null) {
+                if (existing.points == rankPoints) {
+                    existing.username = username;
+                    return;
+                }
+                root = delete(root, existing.points, userId);
+            }
+            Node node = new Node(userId, rankPoints, username, nextPriority());
+            byId.put(userId, node);
+            root = insert(root, node);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void rename(long userId, String username) {
+        lock.writeLock().lock();
+        try {
+            Node node = byId.get(userId);
+            if (node != null) node.username = username;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            Node node = byId.remove(userId);
+            if (node != null) root = delete(root, node.points, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** 1-based rank of the player, or 0 when they are not indexed. */
+    public int rankOf(long userId) {
+        lock.readLock().lock();
+        try {
+            Node node = byId.get(userId);
+            return node == null ? 0 : ahead(node.points) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Entry get(long userId) {
+        lock.readLock().lock();
+        try {
+            Node node = byId.get(userId);
+            return node == null ? null : new Entry(rankOf(userId), node.id, node.username, node.points);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Players ranked offset + 1 .. offset + limit. */
+    public List<Entry> page(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int end = Math.min(byId.size(), offset + limit);
+            List<Entry> out = new ArrayList<>(Math.max(0, end - offset));
+            if (offset >= end) return out;
+
+            // walk down to the first node of the page, keeping the path for an in-order walk from there
+            Node[] stack = new Node[64];
+            int top = 0;
+            Node cur = root;
+            int k = offset;
+            while (cur != null) {
+                int leftSize = size(cur.left);
+                if (k < leftSize) {
+                    if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = cur;
+                    cur = cur.left;
+                } else if (k == leftSize) {
+                    break;
+                } else {
+                    k -= leftSize + 1;
+                    cur = cur.right;
+                }
+            }
+            int rank = ahead(cur.points) + 1;
+            for (int position = offset + 1; position <= end; position++) {
+                // a tie keeps the rank of the first player with those points
+                if (!out.isEmpty() && cur.points != out.get(out.size() - 1).rankPoints()) rank = position;
+                out.add(new Entry(rank, cur.id, cur.username, cur.points));
+                cur = cur.right;
+                while (cur != null) {
+                    if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = cur;
+                    cur = cur.left;
+                }
+                if (top == 0) break;
+                cur = stack[--top];
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // players with more points than given
+    private int ahead(int points) {
+        int count = 0;
+        Node cur = root;
+        while (cur != null) {
+            if (cur.points > points) {
+                count += size(cur.left) + 1;
+                cur = cur.right;
+            } else {
+                cur = cur.left;
+            }
+        }
+        return count;
+    }
+
+    // true when (points, id) sorts before node
+    private static boolean precedes(int points, long id, Node node) {
+        return points > node.points || (points == node.points && id < node.id);
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static Node update(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+        return n;
+    }
+
+    private static Node insert(Node t, Node node) {
+        if (t == null) return node;
+        if (precedes(node.points, node.id, t)) {
+            t.left = insert(t.left, node);
+            if (t.left.priority > t.priority) t = rotateRight(t);
+        } else {
+            t.right = insert(t.right, node);
+            if (t.right.priority > t.priority) t = rotateLeft(t);
+        }
+        return update(t);
+    }
+
+    private static Node delete(Node t, int points, long id) {
+        if (t == null) return null;
+        if (t.id == id) {
+            return merge(t.left, t.right);
+        }
+        if (precedes(points, id, t)) t.left = delete(t.left, points, id);
+        else t.right = delete(t.right, points, id);
+        return update(t);
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            return update(a);
+        }
+        b.left = merge(a, b.left);
+        return update(b);
+    }
+
+    private static Node rotateRight(Node t) {
+        Node l = t.left;
+        t.left = l.right;
+        l.right = update(t);
+        return update(l);
+    }
+
+    private static Node rotateLeft(Node t) {
+        Node r = t.right;
+        t.right = r.left;
+        r.left = update(t);
+        return update(r);
+    }
+
+    // xorshift; only called under the write lock
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) (seed >>> 33);
+    }
+}
@@ -0,0 +1,24 @@
+package com.shanks.game.boardgame_backend.ranking;
+
+import com.shanks.game.boardgame_backend.dao.service.LeaderboardService;
+import com.shanks.game.boardgame_backend.dto.entity.User;
+import jakarta.persistence.PostLoad;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+/** Fills {@link User#getCurrentRank()} from the leaderboard index whenever a user is loaded. */
+public class UserRankListener {
+
+    // lazy: the index depends on the repositories, which depend on the entity manager creating this listener
+    @Autowired
+    @Lazy
+    private LeaderboardService leaderboardService;
+
+    @PostLoad
+    public void fillRank(User user) {
+        int rank = leaderboardService.rankOf(user.getId());
+        if (rank > 0) {
+            user.setCurrentRank(rank);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.shanks.game.boardgame_backend.search;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Rules;
+
+/** Static score of a position for the side to move, in hundredths of a stone. */
+public final class Evaluator {
+
+    static final int STONE = 100;
+    static final int QUAD = 45;
+    static final int STAR = 60;
+    static final int HEXA = 110;
+    // each enemy stone a crystal could destroy right now
+    static final int THREAT = 20;
+    // a side on its last stones above the losing line is in real danger
+    static final int LAST_STONES = 80;
+
+    private Evaluator() {
+    }
+
+    public static int evaluate(Board b) {
+        int us = b.getTurn();
+        return side(b, us) - side(b, Board.opponent(us));
+    }
+
+    private static int side(Board b, int color) {
+        long own = b.colorMask(color);
+        int stones = Long.bitCount(own);
+        int score = stones * STONE
+                + Long.bitCount(own & b.getQuad()) * QUAD
+                + Long.bitCount(own & b.getStar()) * STAR
+                + Long.bitCount(own & b.getHexa()) * HEXA;
+        long crystals = own & b.crystals();
+        while (crystals != 0) {
+            int sq = Long.numberOfTrailingZeros(crystals);
+            crystals &= crystals - 1;
+            score += Long.bitCount(Rules.activationTargets(b, sq)) * THREAT;
+        }
+        if (stones <= Rules.MIN_STONES + 1) score -= LAST_STONES;
+        return score;
+    }
+}
@@ -0,0 +1,299 @@
+package com.shanks.game.boardgame_backend.search;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.engine.MoveGenerator;
+import com.shanks.game.boardgame_backend.engine.Outcome;
+import com.shanks.game.boardgame_backend.engine.Rules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Iterative-deepening alpha-beta over the CrysChess rules, parallelised Lazy SMP style: every thread
+ * searches the same root on its own board stack and they help each other only through the shared
+ * transposition table. Helpers start one ply deeper on odd ids so the threads spread over different depths.
+ * The first thread's last completed iteration is the answer.
+ *
+ * One search at a time per instance; the pool and table are reused between searches.
+ */
+public final class Search implements AutoCloseable {
+
+    public static final int INFINITY = 32000;
+    public static final int WIN = 30000;
+    public static final int MAX_PLY = 64;
+
+    // activations are this engine's captures; quiescence looks this many of them deep
+    private static final int QUIESCENCE_DEPTH = 4;
+
+    private final int threads;
+    private final ForkJoinPool pool;
+    private final TranspositionTable table;
+
+    private volatile boolean stop;
+    private long startNanos;
+    private long deadline;
+
+    public Search(int threads, int tableMegabytes) {
+        this.threads = Math.max(1, threads);
+        this.pool = new ForkJoinPool(this.threads);
+        this.table = new TranspositionTable(tableMegabytes);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /** Best move for the side to move within the time budget; {@link Move#NONE} when it has none. */
+    public SearchResult search(Board root, long budgetMs, int maxDepth) {
+        return search(root, new long[0], budgetMs, maxDepth);
+    }
+
+    /**
+     * Same, aware of the game so far: history holds the keys of the positions since the last irreversible
+     * move (as kept by {@link com.shanks.game.boardgame_backend.engine.PositionHistory}), the root last.
+     * A line that returns to one of them, or repeats within itself, scores as a draw.
+     */
+    public synchronized SearchResult search(Board root, long[] history, long budgetMs, int maxDepth) {
+        long start = System.nanoTime();
+        startNanos = start;
+        deadline = start + budgetMs * 1_000_000L;
+        stop = false;
+        table.newSearch();
+        int depthLimit = Math.max(1, Math.min(maxDepth, MAX_PLY - QUIESCENCE_DEPTH - 1));
+
+        Worker[] workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) workers[i] = new Worker(i, root, history, depthLimit);
+
+        List<ForkJoinTask<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < threads; i++) helpers.add(pool.submit(workers[i]));
+        pool.submit(workers[0]).join();
+        stop = true;
+        for (ForkJoinTask<?> helper : helpers) helper.join();
+
+        long nodes = 0;
+        for (Worker w : workers) nodes += w.nodes;
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+        Worker main = workers[0];
+        return new SearchResult(main.bestMove, main.bestScore, main.completedDepth, nodes, elapsedMs, threads);
+    }
+
+    @Override
+    public void close() {
+        stop = true;
+        pool.shutdownNow();
+    }
+
+    private final class Worker implements Runnable {
+
+        private final int id;
+        private final int depthLimit;
+        private final Board[] stack = new Board[MAX_PLY + 1];
+        private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+        private final int[][] order = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+        private final int[][] killers = new int[MAX_PLY][2];
+        private final int[] history = new int[1 << 13];
+        // game keys before the root, then the key at each ply of the current line
+        private final long[] path;
+        private final int rootIndex;
+
+        long nodes;
+        int bestMove = Move.NONE;
+        int bestScore;
+        int completedDepth;
+        private int rootBest;
+
+        Worker(int id, Board root, long[] gameKeys, int depthLimit) {
+            this.id = id;
+            this.depthLimit = depthLimit;
+            for (int i = 0; i <= MAX_PLY; i++) stack[i] = new Board();
+            stack[0].copyFrom(root);
+            rootIndex = Math.max(0, gameKeys.length - 1);
+            path = new long[rootIndex + MAX_PLY + 1];
+            System.arraycopy(gameKeys, 0, path, 0, rootIndex);
+            path[rootIndex] = root.hash();
+        }
+
+        @Override
+        public void run() {
+            int[] rootMoves = moves[0];
+            int n = MoveGenerator.generate(stack[0], rootMoves);
+            if (n == 0) return;
+            bestMove = rootMoves[0];
+            bestScore = Evaluator.evaluate(stack[0]);
+
+            for (int depth = 1 + (id & 1); depth <= depthLimit; depth++) {
+                rootBest = Move.NONE;
+                int score = alphaBeta(0, depth, -INFINITY, INFINITY);
+                if (stop) break;
+                bestMove = rootBest != Move.NONE ? rootBest : bestMove;
+                bestScore = score;
+                completedDepth = depth;
+                // a forced result does not get better with depth
+                if (Math.abs(score) >= WIN - MAX_PLY) break;
+                // past half the budget the next iteration would not finish anyway
+                if (id == 0 && System.nanoTime() - startNanos > (deadline - startNanos) / 2) break;
+            }
+            if (id == 0) stop = true;
+        }
+
+        private boolean outOfTime() {
+            if ((++nodes & 1023) == 0 && System.nanoTime() > deadline) stop = true;
+            return stop;
+        }
+
+        private int alphaBeta(int ply, int depth, int alpha, int beta) {
+            if (outOfTime()) return 0;
+            Board b = stack[ply];
+
+            Outcome outcome = Rules.outcome(b);
+            if (outcome.isFinished()) return terminal(outcome, b, ply);
+            if (depth <= 0 || ply >= MAX_PLY - QUIESCENCE_DEPTH - 1) return quiescence(ply, alpha, beta, QUIESCENCE_DEPTH);
+
+            long key = b.hash();
+            path[rootIndex + ply] = key;
+            if (ply > 0 && repeats(ply, key)) return 0;
+
+            long entry = table.probe(key);
+            int ttMove = Move.NONE;
+            if (entry != 0) {
+                ttMove = TranspositionTable.move(entry);
+                if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                    int score = fromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER && score >= beta)
+                            || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+
+            int[] list = moves[ply];
+            int n = MoveGenerator.generate(b, list);
+            if (n == 0) return Evaluator.evaluate(b);
+            scoreMoves(b, ply, list, n, ttMove);
+
+            int originalAlpha = alpha;
+            int best = -INFINITY;
+            int bestHere = Move.NONE;
+            Board child = stack[ply + 1];
+            for (int i = 0; i < n; i++) {
+                int move = pickNext(ply, list, i, n);
+                child.copyFrom(b);
+                Rules.apply(child, move);
+                int score = -alphaBeta(ply + 1, depth - 1, -beta, -alpha);
+                if (stop) return 0;
+
+                if (score > best) {
+                    best = score;
+                    bestHere = move;
+                    if (ply == 0) rootBest = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (!Move.isActivation(move)) {
+                            if (killers[ply][0] != move) {
+                                killers[ply][1] = killers[ply][0];
+                                killers[ply][0] = move;
+                            }
+                            history[move & 0x1FFF] += depth * depth;
+                        }
+                        break;
+                    }
+                }
+            }
+
+            int bound = best <= originalAlpha ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(key, bestHere, toTable(best, ply), depth, bound);
+            return best;
+        }
+
+        // stand pat, then only activations, which are what swings material in one move
+        private int quiescence(int ply, int alpha, int beta, int depth) {
+            if (outOfTime()) return 0;
+            Board b = stack[ply];
+            Outcome outcome = Rules.outcome(b);
+            if (outcome.isFinished()) return terminal(outcome, b, ply);
+
+            int standPat = Evaluator.evaluate(b);
+            if (depth == 0 || standPat >= beta) return standPat;
+            if (standPat > alpha) alpha = standPat;
+
+            long crystals = b.colorMask(b.getTurn()) & b.crystals();
+            Board child = stack[ply + 1];
+            while (crystals != 0) {
+                int sq = Long.numberOfTrailingZeros(crystals);
+                crystals &= crystals - 1;
+                if (Rules.activationTargets(b, sq) == 0) continue;
+                child.copyFrom(b);
+                Rules.apply(child, Move.activate(sq));
+                int score = -quiescence(ply + 1, -beta, -alpha, depth - 1);
+                if (stop) return 0;
+                if (score >= beta) return score;
+                if (score > alpha) alpha = score;
+            }
+            return alpha;
+        }
+
+        // TT move, then activations by how much they destroy, then killers, then history
+        private void scoreMoves(Board b, int ply, int[] list, int n, int ttMove) {
+            int[] scores = order[ply];
+            for (int i = 0; i < n; i++) {
+                int move = list[i];
+                if (move == ttMove) scores[i] = 1 << 30;
+                else if (Move.isActivation(move)) {
+                    scores[i] = (1 << 24) + Long.bitCount(Rules.activationTargets(b, Move.from(move)));
+                } else if (move == killers[ply][0]) scores[i] = (1 << 23) + 1;
+                else if (move == killers[ply][1]) scores[i] = 1 << 23;
+                else scores[i] = Math.min(history[move & 0x1FFF], (1 << 23) - 1);
+            }
+        }
+
+        // selection sort one step at a time: cut-offs usually come early, so most of the list is never sorted
+        private int pickNext(int ply, int[] list, int from, int n) {
+            int[] scores = order[ply];
+            int best = from;
+            for (int j = from + 1; j < n; j++) {
+                if (scores[j] > scores[best]) best = j;
+            }
+            int move = list[best];
+            list[best] = list[from];
+            list[from] = move;
+            int s = scores[best];
+            scores[best] = scores[from];
+            scores[from] = s;
+            return move;
+        }
+
+        // the side-to-move key makes every other earlier position a mismatch, so only those are compared
+        private boolean repeats(int ply, long key) {
+            for (int i = rootIndex + ply - 2; i >= 0; i -= 2) {
+                if (path[i] == key) return true;
+            }
+            return false;
+        }
+
+        private int terminal(Outcome outcome, Board b, int ply) {
+            if (outcome == Outcome.DRAW) return 0;
+            return outcome.winner() == b.getTurn() ? WIN - ply : -(WIN - ply);
+        }
+    }
+
+    // win scores are stored relative to the node so they stay right when reached through another path
+    private static int toTable(int score, int ply) {
+        if (score >= WIN - MAX_PLY) return score + ply;
+        if (score <= -(WIN - MAX_PLY)) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN - MAX_PLY) return score - ply;
+        if (score <= -(WIN - MAX_PLY)) return score + ply;
+        return score;
+    }
+}
@@ -0,0 +1,18 @@
+package com.shanks.game.boardgame_backend.search;
+
+import com.shanks.game.boardgame_backend.engine.Move;
+
+/** Outcome of one search: the move to play, its score for the side to move and the effort spent. */
+public record SearchResult(int bestMove, int score, int depth, long nodes, long elapsedMs, int threads) {
+
+    /** Nodes per second over all threads. */
+    public long nps() {
+        return elapsedMs == 0 ? nodes * 1000 : nodes * 1000 / elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return Move.toString(bestMove) + " score " + score + " depth " + depth + " nodes " + nodes
+                + " in " + elapsedMs + "ms (" + nps() + " nps, " + threads + " threads)";
+    }
+}
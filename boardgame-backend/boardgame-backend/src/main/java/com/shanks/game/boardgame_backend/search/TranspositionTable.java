@@ -0,0 +1,94 @@
+package com.shanks.game.boardgame_backend.search;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Shared, lock-free transposition table. Each slot is two longs, (key ^ data, data): a slot torn by two
+ * threads writing at once no longer verifies against its key and simply reads as a miss.
+ *
+ * data layout: bits 0-13 move + 1 (0 = none), 14-29 score + 32768, 30-37 depth, 38-39 bound, 40-47 age.
+ */
+public final class TranspositionTable {
+
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] slots;
+    private final int mask;
+    private volatile int age;
+
+    public TranspositionTable(int megabytes) {
+        long entries = Math.max(1024, (long) megabytes * 1024 * 1024 / 16);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 28));
+        slots = new long[size * 2];
+        mask = size - 1;
+    }
+
+    /** Marks the start of a new search, so entries of older ones are replaced first. */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) SLOTS.setOpaque(slots, i, 0L);
+    }
+
+    /** The entry's data for key, or 0 when the table does not know the position. */
+    public long probe(long key) {
+        int i = index(key);
+        long data = (long) SLOTS.getOpaque(slots, i + 1);
+        long check = (long) SLOTS.getOpaque(slots, i);
+        return data != 0 && (check ^ data) == key ? data : 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int i = index(key);
+        long old = (long) SLOTS.getOpaque(slots, i + 1);
+        long oldKey = (long) SLOTS.getOpaque(slots, i) ^ old;
+        int currentAge = age;
+        if (old != 0 && oldKey == key && depth < depth(old) - 2 && age(old) == currentAge) {
+            return;
+        }
+        if (old != 0 && oldKey != key && age(old) == currentAge && depth < depth(old)) {
+            return;
+        }
+        if (move == -1 && oldKey == key) {
+            move = move(old);
+        }
+        long data = ((long) (move + 1) & 0x3FFF)
+                | ((long) (score + 32768) & 0xFFFF) << 14
+                | ((long) Math.max(0, Math.min(depth, 255))) << 30
+                | ((long) bound) << 38
+                | ((long) currentAge) << 40;
+        SLOTS.setOpaque(slots, i, key ^ data);
+        SLOTS.setOpaque(slots, i + 1, data);
+    }
+
+    private int index(long key) {
+        return (int) (key & mask) << 1;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0x3FFF) - 1;
+    }
+
+    public static int score(long data) {
+        return (int) ((data >>> 14) & 0xFFFF) - 32768;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 30) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 38) & 0x3);
+    }
+
+    private static int age(long data) {
+        return (int) ((data >>> 40) & 0xFF);
+    }
+}
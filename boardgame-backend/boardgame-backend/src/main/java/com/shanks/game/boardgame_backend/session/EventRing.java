@@ -0,0 +1,50 @@
+package com.shanks.game.boardgame_backend.session;
+
+import com.shanks.game.boardgame_backend.dto.event.GameEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The most recent events of one game, by seq. A session numbers its events without gaps, starting right
+ * after its seed (its load time, see {@link GameSession#detachedSeq()}), so event n lives in slot
+ * n % capacity and the oldest one kept is the later of the session's first event and last - capacity + 1.
+ * Not thread-safe: it belongs to a session and is only touched on its mailbox.
+ */
+public class EventRing {
+
+    private final GameEvent[] events;
+    private long first;
+    private long last;
+
+    public EventRing(int capacity) {
+        this.events = new GameEvent[Math.max(1, capacity)];
+    }
+
+    public void add(GameEvent event) {
+        events[(int) (event.getSeq() % events.length)] = event;
+        if (first == 0) first = event.getSeq();
+        last = Math.max(last, event.getSeq());
+    }
+
+    /** Seq of the oldest event still kept, or last + 1 when there is none. */
+    public long oldest() {
+        return first == 0 ? last + 1 : Math.max(first, last - events.length + 1);
+    }
+
+    /**
+     * The events after lastSeq, oldest first; empty when lastSeq is current, null when some of them
+     * have already been overwritten or lastSeq is ahead of this game (a stream from before a restart).
+     */
+    public List<GameEvent> after(long lastSeq) {
+        if (lastSeq > last || lastSeq < 0 || lastSeq + 1 < oldest()) return null;
+        List<GameEvent> missed = new ArrayList<>((int) (last - lastSeq));
+        for (long seq = lastSeq + 1; seq <= last; seq++) {
+            GameEvent event = events[(int) (seq % events.length)];
+            // only if the numbering had a gap
+            if (event == null || event.getSeq() != seq) return null;
+            missed.add(event);
+        }
+        return missed;
+    }
+}
@@ -0,0 +1,211 @@
+package com.shanks.game.boardgame_backend.session;
+
+import com.shanks.game.boardgame_backend.dao.repository.GameDataRepository;
+import com.shanks.game.boardgame_backend.dao.repository.GameMoveRepository;
+import com.shanks.game.boardgame_backend.dao.repository.GameSnapshotRepository;
+import com.shanks.game.boardgame_backend.dto.entity.GameData;
+import com.shanks.game.boardgame_backend.dto.entity.GameMove;
+import com.shanks.game.boardgame_backend.dto.entity.GameSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for game_data rows and the move log. Only the latest game_data state of each
+ * game is kept, so a burst of moves costs one UPDATE; game_move and game_snapshot rows are appended
+ * with batched INSERTs. Everything is written off the move path.
+ */
+@Component
+public class GameDataWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameDataWriteBehind.class);
+
+    @Autowired
+    private GameDataRepository gameDataRepository;
+
+    @Autowired
+    private GameMoveRepository gameMoveRepository;
+
+    @Autowired
+    private GameSnapshotRepository gameSnapshotRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.game-data.batch-size:50}")
+    private int batchSize;
+
+    // gameId -> latest snapshot not yet written
+    private final Map<Long, GameData> pending = new ConcurrentHashMap<>();
+
+    private final Queue<GameMove> pendingMoves = new ConcurrentLinkedQueue<>();
+    private final Queue<GameSnapshot> pendingSnapshots = new ConcurrentLinkedQueue<>();
+
+    // flushes are serialized so an older snapshot never overwrites a newer one
+    private final Object flushLock = new Object();
+
+    /** Queues the state of a game; replaces any snapshot of the same game still waiting. */
+    public void enqueue(GameData snapshot) {
+        pending.put(snapshot.getGameId(), snapshot);
+    }
+
+    public void appendMove(GameMove move) {
+        pendingMoves.add(move);
+    }
+
+    public void appendSnapshot(GameSnapshot snapshot) {
+        pendingSnapshots.add(snapshot);
+    }
+
+    /**
+     * Ply of the last move logged for a game, counting moves still waiting in this buffer.
+     * Taken under the flush lock, so a batch being written is either all in the database or all still queued.
+     */
+    public int lastPly(Long gameId) {
+        synchronized (flushLock) {
+            int last = gameMoveRepository.findLastPly(gameId);
+            for (GameMove move : pendingMoves) {
+                if (gameId.equals(move.getGameId())) last = Math.max(last, move.getPly());
+            }
+            return last;
+        }
+    }
+
+    /** Whether a snapshot of the game at this ply is stored or waiting to be. */
+    public boolean hasSnapshot(Long gameId, int ply) {
+        synchronized (flushLock) {
+            for (GameSnapshot snapshot : pendingSnapshots) {
+                if (gameId.equals(snapshot.getGameId()) && snapshot.getPly() == ply) return true;
+            }
+            return gameSnapshotRepository.existsById(new GameMove.Key(gameId, ply));
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size() + pendingMoves.size() + pendingSnapshots.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.game-data.flush-interval-ms:200}")
+    public void flushAll() {
+        synchronized (flushLock) {
+            List<GameData> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+            for (Map.Entry<Long, GameData> entry : pending.entrySet()) {
+                if (pending.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(entry.getValue());
+                }
+                if (batch.size() == batchSize) {
+                    write(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) write(batch);
+            appendLog();
+        }
+    }
+
+    /** Writes one game right away, e.g. when it ends, together with the move log queued so far. */
+    public void flush(Long gameId) {
+        synchronized (flushLock) {
+            GameData snapshot = pending.remove(gameId);
+            if (snapshot != null) write(List.of(snapshot));
+            appendLog();
+        }
+    }
+
+    private void appendLog() {
+        List<GameMove> moves = drain(pendingMoves);
+        List<GameSnapshot> snapshots = drain(pendingSnapshots);
+        if (moves.isEmpty() && snapshots.isEmpty()) return;
+        try {
+            // assigned keys, so hibernate.jdbc.batch_size turns these into batched INSERTs
+            transactionTemplate.executeWithoutResult(status -> {
+                gameMoveRepository.saveAll(moves);
+                gameSnapshotRepository.saveAll(snapshots);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // a row that is already stored would fail the batch forever; write them one by one and drop the clashes
+            logger.warn("Appending {} moves and {} snapshots hit a constraint, writing them one by one: {}",
+                    moves.size(), snapshots.size(), e.getMessage());
+            for (GameMove move : moves) {
+                move.setNew(true);
+                if (!appendOne(() -> gameMoveRepository.save(move), "move", move.getGameId(), move.getPly())) {
+                    pendingMoves.add(move);
+                }
+            }
+            for (GameSnapshot snapshot : snapshots) {
+                snapshot.setNew(true);
+                if (!appendOne(() -> gameSnapshotRepository.save(snapshot), "snapshot", snapshot.getGameId(), snapshot.getPly())) {
+                    pendingSnapshots.add(snapshot);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to append {} moves and {} snapshots: {}", moves.size(), snapshots.size(), e.getMessage());
+            moves.forEach(m -> m.setNew(true));
+            snapshots.forEach(sn -> sn.setNew(true));
+            pendingMoves.addAll(moves);
+            pendingSnapshots.addAll(snapshots);
+        }
+    }
+
+    // one row in its own transaction; false when it should be retried with the next round
+    private boolean appendOne(Runnable save, String kind, Long gameId, int ply) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> save.run());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Dropped {} of game {} at ply {}: {}", kind, gameId, ply, e.getMessage());
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static <T> List<T> drain(Queue<T> queue) {
+        List<T> out = new ArrayList<>();
+        T item;
+        while ((item = queue.poll()) != null) out.add(item);
+        return out;
+    }
+
+    private void write(List<GameData> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, GameData> byId = batch.stream()
+                        .collect(Collectors.toMap(GameData::getId, Function.identity()));
+                // one select for the batch, then dirty checking emits batched updates on commit
+                for (GameData row : gameDataRepository.findAllById(byId.keySet())) {
+                    GameData snapshot = byId.get(row.getId());
+                    row.setBoard(snapshot.getBoard());
+                    // legacy JSON rows are migrated on their first write
+                    row.setData(null);
+                    row.setTurn(snapshot.getTurn());
+                    row.setLastPlayerId(snapshot.getLastPlayerId());
+                }
+            });
+        } catch (RuntimeException e) {
+            // keep the data for the next round unless a newer snapshot arrived meanwhile
+            logger.warn("Failed to flush {} game_data rows: {}", batch.size(), e.getMessage());
+            batch.forEach(gd -> pending.putIfAbsent(gd.getGameId(), gd));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+    }
+}
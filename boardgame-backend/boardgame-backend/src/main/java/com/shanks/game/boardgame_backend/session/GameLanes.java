@@ -0,0 +1,99 @@
+package com.shanks.game.boardgame_backend.session;
+
+import com.shanks.game.boardgame_backend.dto.view.LaneStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed set of single-threaded lanes. A game always lands on the same lane (its id modulo the lane count),
+ * so everything done for one game runs in arrival order on one thread and its state needs no locks,
+ * while games on other lanes run in parallel. Each lane reports its queue depth.
+ */
+@Component
+public class GameLanes {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameLanes.class);
+
+    private static final class Lane implements Executor {
+        final int index;
+        final ThreadPoolExecutor thread;
+        final AtomicInteger maxDepth = new AtomicInteger();
+
+        Lane(int index) {
+            this.index = index;
+            this.thread = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "game-lane-" + index);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            thread.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // one bad task must not take the lane's thread (and its place in line) with it
+                    logger.warn("Task failed on game lane {}", index, e);
+                }
+            });
+            int depth = thread.getQueue().size();
+            maxDepth.accumulateAndGet(depth, Math::max);
+        }
+    }
+
+    private final Lane[] lanes;
+
+    // the socket handlers wait on MySQL on these threads too, hence two per core by default
+    public GameLanes(@Value("${app.game-lanes.count:0}") int count) {
+        int size = count > 0 ? count : Runtime.getRuntime().availableProcessors() * 2;
+        lanes = new Lane[size];
+        for (int i = 0; i < size; i++) lanes[i] = new Lane(i);
+    }
+
+    /** Runs the task on the game's lane, after everything already queued for that lane. */
+    public void execute(Long gameId, Runnable task) {
+        lane(gameId).execute(task);
+    }
+
+    /** The game's lane as an executor, for a session's mailbox. */
+    public Executor executor(Long gameId) {
+        return lane(gameId);
+    }
+
+    public int size() {
+        return lanes.length;
+    }
+
+    public List<LaneStats> stats() {
+        List<LaneStats> stats = new ArrayList<>(lanes.length);
+        for (Lane lane : lanes) {
+            stats.add(new LaneStats(lane.index, lane.thread.getQueue().size(), lane.maxDepth.get(),
+                    lane.thread.getActiveCount() > 0, lane.thread.getCompletedTaskCount()));
+        }
+        return stats;
+    }
+
+    // consecutive ids go round-robin over the lanes
+    private Lane lane(Long gameId) {
+        return lanes[Math.floorMod(Long.hashCode(gameId), lanes.length)];
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Lane lane : lanes) lane.thread.shutdown();
+        for (Lane lane : lanes) lane.thread.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
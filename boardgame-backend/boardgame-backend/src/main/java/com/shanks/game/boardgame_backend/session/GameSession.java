@@ -0,0 +1,182 @@
+package com.shanks.game.boardgame_backend.session;
+
+import com.shanks.game.boardgame_backend.dto.event.GameEvent;
+import com.shanks.game.boardgame_backend.dto.event.StatusEvent;
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.PositionHistory;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authoritative in-memory state of one active game.
+ * All reads and writes of the state happen inside tasks submitted to the session's mailbox,
+ * which is the game's lane in {@link GameLanes}: one thread, in order, so the state needs no locking.
+ */
+public class GameSession {
+
+    // microseconds since the epoch, never handed out smaller than before
+    private static final AtomicLong CLOCK = new AtomicLong();
+
+    private final Long gameId;
+    private final Long gameDataId;
+    private final Board board;
+    private final PositionHistory history = new PositionHistory();
+    private final Executor executor;
+    private final EventRing events;
+
+    private Long player1Id;
+    private Long player2Id;
+    private Long lastPlayerId;
+    private boolean finished;
+    private long seq;
+    private StatusEvent lastStatus;
+    private int ply;
+
+    private volatile long lastActive = System.currentTimeMillis();
+    private volatile boolean closed;
+
+    GameSession(Long gameId, Long gameDataId, Long player1Id, Long player2Id,
+                Board board, Long lastPlayerId, Executor executor, int replaySize) {
+        this.gameId = gameId;
+        this.gameDataId = gameDataId;
+        this.player1Id = player1Id;
+        this.player2Id = player2Id;
+        this.board = board;
+        this.lastPlayerId = lastPlayerId;
+        this.executor = executor;
+        this.events = new EventRing(replaySize);
+        // a reloaded game must not reuse the numbers of its earlier incarnation, which clients may
+        // still hold; starting from the load time keeps them apart (and well inside 2^53)
+        this.seq = detachedSeq();
+        history.add(board.hash());
+    }
+
+    /**
+     * Queues a task; tasks of one session never run concurrently and run in submission order.
+     * A closed session takes no more tasks and returns false; tasks queued just before it closed
+     * still run and can tell from {@link #isClosed()}.
+     */
+    public boolean submit(Runnable task) {
+        if (closed) return false;
+        lastActive = System.currentTimeMillis();
+        executor.execute(task);
+        return true;
+    }
+
+    /** True once the session has been written out and dropped from the registry. */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public long getLastActive() {
+        return lastActive;
+    }
+
+    public Long getGameDataId() {
+        return gameDataId;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    /** Positions since the last irreversible move, ending with the current one. */
+    public PositionHistory getHistory() {
+        return history;
+    }
+
+    public Long getPlayer1Id() {
+        return player1Id;
+    }
+
+    public Long getPlayer2Id() {
+        return player2Id;
+    }
+
+    public void setPlayers(Long player1Id, Long player2Id) {
+        this.player1Id = player1Id;
+        this.player2Id = player2Id;
+    }
+
+    public Long getLastPlayerId() {
+        return lastPlayerId;
+    }
+
+    public void setLastPlayerId(Long lastPlayerId) {
+        this.lastPlayerId = lastPlayerId;
+    }
+
+    /**
+     * Seq for an event about a game that has no session (finished, or not loaded): the current time on the
+     * scale of the session seeds. It is never below an earlier one, and a session loaded afterwards numbers
+     * its events after it, so clients that only move their last seq forward keep working.
+     */
+    public static long detachedSeq() {
+        return CLOCK.accumulateAndGet(System.currentTimeMillis() * 1000, Math::max);
+    }
+
+    /** Sequence number for the next event published for this game. */
+    public long nextSeq() {
+        return ++seq;
+    }
+
+    /** Sequence number of the last event published for this game. */
+    public long getSeq() {
+        return seq;
+    }
+
+    /** Keeps a published event for replay; the latest STATUS is also kept for snapshots. */
+    public void record(GameEvent event) {
+        events.add(event);
+        if (event instanceof StatusEvent status) lastStatus = status;
+    }
+
+    /** Events published after lastSeq, or null when they are no longer all kept. */
+    public List<GameEvent> eventsAfter(long lastSeq) {
+        return events.after(lastSeq);
+    }
+
+    /** The last STATUS published by this session, or null. */
+    public StatusEvent getLastStatus() {
+        return lastStatus;
+    }
+
+    /** Number of moves played so far; the next move gets ply + 1. */
+    public int getPly() {
+        return ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    public int nextPly() {
+        return ++ply;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+    /** Colour the player controls in this game, or -1 when they are not seated. */
+    public int colorOf(Long playerId) {
+        if (playerId == null) return -1;
+        if (playerId.equals(player1Id)) return Board.RED;
+        if (playerId.equals(player2Id)) return Board.BLUE;
+        return -1;
+    }
+}
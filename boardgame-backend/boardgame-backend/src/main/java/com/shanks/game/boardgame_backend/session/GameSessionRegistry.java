@@ -0,0 +1,75 @@
+package com.shanks.game.boardgame_backend.session;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Active games by id. Each session's mailbox is its game's lane, so its tasks stay ordered
+ * while games on other lanes run in parallel.
+ */
+@Component
+public class GameSessionRegistry {
+
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private GameLanes lanes;
+
+    @Autowired
+    private GameDataWriteBehind writeBehind;
+
+    @Value("${app.game-session.idle-timeout-ms:1800000}")
+    private long idleTimeoutMs;
+
+    @Value("${app.game-events.replay-size:256}")
+    private int replaySize;
+
+    public GameSession get(Long gameId) {
+        return sessions.get(gameId);
+    }
+
+    /**
+     * Registers a freshly loaded session unless a live one for the game got there first,
+     * and returns the session in use. Loading happens before, outside the map.
+     */
+    public GameSession register(GameSession session) {
+        return sessions.compute(session.getGameId(),
+                (id, current) -> current != null && !current.isClosed() ? current : session);
+    }
+
+    public GameSession create(Long gameId, Long gameDataId, Long player1Id, Long player2Id,
+                              Board board, Long lastPlayerId) {
+        return new GameSession(gameId, gameDataId, player1Id, player2Id, board, lastPlayerId,
+                lanes.executor(gameId), replaySize);
+    }
+
+    /** Closes a session that has been written out and drops it; the next lookup loads the game again. */
+    public void close(GameSession session) {
+        session.close();
+        sessions.remove(session.getGameId(), session);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    // abandoned games: write their last state and drop them from memory
+    @Scheduled(fixedDelayString = "${app.game-session.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        for (GameSession session : sessions.values()) {
+            if (session.getLastActive() < cutoff) {
+                session.submit(() -> {
+                    writeBehind.flush(session.getGameId());
+                    close(session);
+                });
+            }
+        }
+    }
+}
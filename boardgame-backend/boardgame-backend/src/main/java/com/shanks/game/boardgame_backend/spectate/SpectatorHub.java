@@ -0,0 +1,279 @@
+package com.shanks.game.boardgame_backend.spectate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shanks.game.boardgame_backend.dto.event.SnapshotEvent;
+import com.shanks.game.boardgame_backend.dto.event.SpectateEvent;
+import com.shanks.game.boardgame_backend.dto.event.StatusEvent;
+import com.shanks.game.boardgame_backend.dto.view.SpectateStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Spectators of /topic/spectate/{gameId}. They do not get the players' event stream: each game keeps
+ * its latest {@link SpectateEvent}, which is serialized once and handed to every spectator session
+ * straight on the outbound channel, at most once per min-interval and off the players' path.
+ * A spectator has at most one frame in flight and one waiting; a newer frame replaces the waiting one,
+ * so a slow spectator skips intermediate states instead of piling up a send buffer.
+ */
+@Component
+public class SpectatorHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpectatorHub.class);
+
+    public static final String DESTINATION_PREFIX = "/topic/spectate/";
+
+    // message header carrying the callback that frees a spectator's in-flight slot
+    private static final String DELIVERED = "spectateDelivered";
+
+    @Autowired
+    @Qualifier("clientOutboundChannel")
+    private MessageChannel clientOutboundChannel;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.spectate.min-interval-ms:100}")
+    private long minIntervalMs;
+
+    private final Map<Long, Audience> audiences = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Spectator>> bySession = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService fanOut = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "spectate-fanout");
+        t.setDaemon(true);
+        // players' messages go first
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final class Audience {
+        final Long gameId;
+        final Set<Spectator> spectators = ConcurrentHashMap.newKeySet();
+        // guarded by this
+        StatusEvent status;
+        SnapshotEvent snapshot;
+        boolean scheduled;
+        long lastFanOut;
+
+        Audience(Long gameId) {
+            this.gameId = gameId;
+        }
+    }
+
+    private final class Spectator {
+        final String sessionId;
+        final String subscriptionId;
+        final Long gameId;
+        final AtomicReference<byte[]> waiting = new AtomicReference<>();
+        final AtomicBoolean inFlight = new AtomicBoolean();
+        volatile boolean closed;
+
+        Spectator(String sessionId, String subscriptionId, Long gameId) {
+            this.sessionId = sessionId;
+            this.subscriptionId = subscriptionId;
+            this.gameId = gameId;
+        }
+
+        void offer(byte[] frame) {
+            if (waiting.getAndSet(frame) != null) coalesced.incrementAndGet();
+            trySend();
+        }
+
+        void trySend() {
+            while (!closed && inFlight.compareAndSet(false, true)) {
+                byte[] frame = waiting.getAndSet(null);
+                if (frame != null) {
+                    send(this, frame);
+                    return;
+                }
+                inFlight.set(false);
+                // a frame offered between the two steps above is sent by the next round
+                if (waiting.get() == null) return;
+            }
+        }
+
+        void delivered() {
+            sent.incrementAndGet();
+            inFlight.set(false);
+            trySend();
+        }
+    }
+
+    /** The game a spectate destination names, or null for any other destination. */
+    public static Long gameIdOf(String destination) {
+        if (destination == null || !destination.startsWith(DESTINATION_PREFIX)) return null;
+        try {
+            return Long.parseLong(destination.substring(DESTINATION_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Adds a spectator; true when the game's state still has to be supplied through status and position. */
+    public boolean subscribe(String sessionId, String subscriptionId, Long gameId) {
+        Spectator spectator = new Spectator(sessionId, subscriptionId, gameId);
+        Spectator previous = bySession.computeIfAbsent(sessionId, s -> new ConcurrentHashMap<>())
+                .put(subscriptionId, spectator);
+        if (previous != null) leave(previous);
+        Audience audience = audiences.compute(gameId, (id, a) -> {
+            Audience joined = a != null ? a : new Audience(id);
+            joined.spectators.add(spectator);
+            return joined;
+        });
+        // the newcomer needs the current frame and everyone else the new count
+        schedule(audience);
+        synchronized (audience) {
+            return audience.snapshot == null;
+        }
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, Spectator> subscriptions = bySession.get(sessionId);
+        if (subscriptions == null) return;
+        Spectator spectator = subscriptions.remove(subscriptionId);
+        if (spectator != null) leave(spectator);
+    }
+
+    public void disconnected(String sessionId) {
+        Map<String, Spectator> subscriptions = bySession.remove(sessionId);
+        if (subscriptions == null) return;
+        subscriptions.values().forEach(this::leave);
+    }
+
+    private void leave(Spectator spectator) {
+        spectator.closed = true;
+        Audience audience = audiences.computeIfPresent(spectator.gameId, (id, a) -> {
+            a.spectators.remove(spectator);
+            return a.spectators.isEmpty() ? null : a;
+        });
+        if (audience != null) schedule(audience);
+    }
+
+    public boolean watched(Long gameId) {
+        return audiences.containsKey(gameId);
+    }
+
+    public int count(Long gameId) {
+        Audience audience = audiences.get(gameId);
+        return audience == null ? 0 : audience.spectators.size();
+    }
+
+    /** New seats or status of a watched game; ignored when nobody watches it. */
+    public void status(Long gameId, StatusEvent status) {
+        Audience audience = audiences.get(gameId);
+        if (audience == null) return;
+        synchronized (audience) {
+            if (audience.status == null || status.getSeq() >= audience.status.getSeq()) audience.status = status;
+        }
+        schedule(audience);
+    }
+
+    /** New board of a watched game; ignored when nobody watches it. */
+    public void position(Long gameId, SnapshotEvent snapshot) {
+        Audience audience = audiences.get(gameId);
+        if (audience == null) return;
+        synchronized (audience) {
+            if (audience.snapshot == null || snapshot.getSeq() >= audience.snapshot.getSeq()) audience.snapshot = snapshot;
+        }
+        schedule(audience);
+    }
+
+    public SpectateStats stats() {
+        return new SpectateStats(audiences.size(), bySession.values().stream().mapToInt(Map::size).sum(),
+                frames.get(), sent.get(), coalesced.get());
+    }
+
+    // one fan-out per game and interval, however many updates came in between
+    private void schedule(Audience audience) {
+        long delay;
+        synchronized (audience) {
+            if (audience.scheduled) return;
+            audience.scheduled = true;
+            delay = Math.max(0, audience.lastFanOut + minIntervalMs - System.currentTimeMillis());
+        }
+        fanOut.schedule(() -> fanOut(audience), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void fanOut(Audience audience) {
+        SpectateEvent event;
+        synchronized (audience) {
+            audience.scheduled = false;
+            audience.lastFanOut = System.currentTimeMillis();
+            // nothing to show until the state has been supplied; the count goes out with it
+            if (audience.snapshot == null) return;
+            event = new SpectateEvent(audience.gameId, audience.status, audience.snapshot, audience.spectators.size());
+        }
+        byte[] frame;
+        try {
+            frame = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            logger.warn("Cannot serialize spectator frame of game {}", audience.gameId, e);
+            return;
+        }
+        frames.incrementAndGet();
+        for (Spectator spectator : audience.spectators) spectator.offer(frame);
+    }
+
+    private void send(Spectator spectator, byte[] frame) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(spectator.sessionId);
+        accessor.setSubscriptionId(spectator.subscriptionId);
+        accessor.setDestination(DESTINATION_PREFIX + spectator.gameId);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setHeader(DELIVERED, (Runnable) spectator::delivered);
+        accessor.setLeaveMutable(true);
+        try {
+            clientOutboundChannel.send(MessageBuilder.createMessage(frame, accessor.getMessageHeaders()));
+        } catch (RuntimeException e) {
+            logger.debug("Spectator frame to session {} failed: {}", spectator.sessionId, e.getMessage());
+            spectator.inFlight.set(false);
+        }
+    }
+
+    /**
+     * Frees a spectator's in-flight slot once the outbound channel has written its frame to the session;
+     * registered on clientOutboundChannel by the WebSocket configuration.
+     */
+    public static ChannelInterceptor deliveryInterceptor() {
+        return new ExecutorChannelInterceptor() {
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                            Exception ex) {
+                if (message.getHeaders().get(DELIVERED) instanceof Runnable delivered) delivered.run();
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+    }
+}
@@ -0,0 +1,60 @@
+package com.shanks.game.boardgame_backend.tablebase;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A byte array of any length backed by a memory-mapped file region. A single mapping stops at 2 GB,
+ * so the region is mapped in 1 GB segments; the OS pages it in and out, nothing is on the Java heap.
+ */
+final class MappedBytes {
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final MappedByteBuffer[] segments;
+    private final long length;
+
+    MappedBytes(FileChannel channel, FileChannel.MapMode mode, long offset, long length) throws IOException {
+        this.length = length;
+        int count = (int) ((length + SEGMENT_MASK) >>> SEGMENT_BITS);
+        segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = (long) i << SEGMENT_BITS;
+            segments[i] = channel.map(mode, offset + start, Math.min(1L << SEGMENT_BITS, length - start));
+        }
+    }
+
+    long length() {
+        return length;
+    }
+
+    byte get(long i) {
+        return segments[(int) (i >>> SEGMENT_BITS)].get((int) (i & SEGMENT_MASK));
+    }
+
+    void put(long i, byte value) {
+        segments[(int) (i >>> SEGMENT_BITS)].put((int) (i & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Atomically subtracts one from the unsigned byte at i, which must be above zero, and returns its old value.
+     * Done on the aligned long around it, so the region must start on an 8-byte boundary of the file.
+     */
+    int decrement(long i) {
+        MappedByteBuffer segment = segments[(int) (i >>> SEGMENT_BITS)];
+        int offset = (int) (i & SEGMENT_MASK);
+        int shift = (offset & 7) * 8;
+        long old = (long) LONGS.getAndAdd(segment, offset & ~7, -(1L << shift));
+        return (int) (old >>> shift) & 0xFF;
+    }
+
+    void force() {
+        for (MappedByteBuffer segment : segments) segment.force();
+    }
+}
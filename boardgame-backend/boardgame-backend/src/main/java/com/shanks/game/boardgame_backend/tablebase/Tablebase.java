@@ -0,0 +1,167 @@
+package com.shanks.game.boardgame_backend.tablebase;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Rules;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read side of the endgame tablebases written by {@link TablebaseGenerator}: one memory-mapped file per
+ * material (red stones x blue stones, red to move) holding one byte per position at its
+ * {@link TablebaseIndex}. A probe is an index computation and a single byte read.
+ *
+ * Only positions without crystals are covered. The rules treat both colours alike, so a position with blue
+ * to move is looked up with the colours swapped.
+ *
+ * Byte values: 0 draw, 1..127 win in that many plies, 128 + n loss in n plies, 255 unknown (the result
+ * depends on positions with crystals, which are not tabulated, or is longer than the distance field holds).
+ */
+public final class Tablebase {
+
+    public enum Kind { WIN, DRAW, LOSS, UNKNOWN }
+
+    /** Result for the side to move; plies is the distance to the end of the game with best play, 0 for draws. */
+    public record Result(Kind kind, int plies) {
+    }
+
+    static final int MAGIC = 0x43544231; // "CTB1"
+    static final int HEADER_BYTES = 16;
+    static final String EXTENSION = ".ctb";
+
+    static final byte DRAW = 0;
+    static final byte UNKNOWN = (byte) 0xFF;
+    static final int LOSS_BASE = 128;
+    static final int MAX_PLIES = 126;
+
+    private final Map<Integer, Table> tables;
+
+    private Tablebase(Map<Integer, Table> tables) {
+        this.tables = tables;
+    }
+
+    /** Maps every table file in dir; an absent directory gives an empty tablebase. */
+    public static Tablebase open(Path dir) throws IOException {
+        Map<Integer, Table> tables = new HashMap<>();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+                for (Path file : files) {
+                    Table table = Table.open(file);
+                    tables.put(key(table.index.red(), table.index.blue()), table);
+                }
+            }
+        }
+        return new Tablebase(tables);
+    }
+
+    static String fileName(int red, int blue) {
+        return red + "v" + blue + EXTENSION;
+    }
+
+    public static Tablebase empty() {
+        return new Tablebase(Map.of());
+    }
+
+    public boolean isEmpty() {
+        return tables.isEmpty();
+    }
+
+    public int tableCount() {
+        return tables.size();
+    }
+
+    public boolean covers(int red, int blue) {
+        return tables.containsKey(key(red, blue));
+    }
+
+    /** Result for the side to move, or null when the position is finished, has crystals or no table covers it. */
+    public Result probe(Board board) {
+        if (board.crystals() != 0 || Rules.outcome(board).isFinished()) return null;
+        long own = board.colorMask(board.getTurn());
+        long other = board.colorMask(Board.opponent(board.getTurn()));
+        Table table = tables.get(key(Long.bitCount(own), Long.bitCount(other)));
+        if (table == null || !table.index.contains(own, other)) return null;
+        return decode(table.values.get(table.index.index(own, other)));
+    }
+
+    /** Raw byte for the stone-only position where the mover has the stones in own, UNKNOWN when not covered. */
+    byte value(long own, long other) {
+        Table table = tables.get(key(Long.bitCount(own), Long.bitCount(other)));
+        if (table == null || !table.index.contains(own, other)) return UNKNOWN;
+        return table.values.get(table.index.index(own, other));
+    }
+
+    static Result decode(byte value) {
+        int v = value & 0xFF;
+        if (v == 0) return new Result(Kind.DRAW, 0);
+        if (v == 0xFF) return new Result(Kind.UNKNOWN, 0);
+        if (v < LOSS_BASE) return new Result(Kind.WIN, v);
+        return new Result(Kind.LOSS, v - LOSS_BASE);
+    }
+
+    static byte win(int plies) {
+        return (byte) plies;
+    }
+
+    static byte loss(int plies) {
+        return (byte) (LOSS_BASE + plies);
+    }
+
+    static boolean isLoss(byte value) {
+        int v = value & 0xFF;
+        return v >= LOSS_BASE && v != 0xFF;
+    }
+
+    static boolean isWin(byte value) {
+        int v = value & 0xFF;
+        return v > 0 && v < LOSS_BASE;
+    }
+
+    static int plies(byte value) {
+        int v = value & 0xFF;
+        return v < LOSS_BASE ? v : v - LOSS_BASE;
+    }
+
+    static int key(int red, int blue) {
+        return red << 8 | blue;
+    }
+
+    static final class Table {
+
+        final TablebaseIndex index;
+        final MappedBytes values;
+
+        Table(TablebaseIndex index, MappedBytes values) {
+            this.index = index;
+            this.values = values;
+        }
+
+        static Table open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                header.flip();
+                if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                    throw new IOException("Not a tablebase file: " + file);
+                }
+                int red = header.get();
+                int blue = header.get();
+                // 0 for the full board
+                int squares = header.getShort();
+                TablebaseIndex index = new TablebaseIndex(red, blue, squares == 0 ? 64 : squares);
+                if (header.getLong() != index.size() || channel.size() != HEADER_BYTES + index.size()) {
+                    throw new IOException("Truncated tablebase file: " + file);
+                }
+                // the mapping stays valid after the channel is closed
+                return new Table(index, new MappedBytes(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES, index.size()));
+            }
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.shanks.game.boardgame_backend.tablebase;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.engine.MoveGenerator;
+import com.shanks.game.boardgame_backend.engine.Outcome;
+import com.shanks.game.boardgame_backend.engine.Rules;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline retrograde analysis of stone-only endgames, every material with at least {@link Rules#MIN_STONES}
+ * stones a side up to a total stone count, smallest total first so captures always land in finished tables.
+ *
+ * For one material and its colour-swapped twin (a move hands the turn over, so their positions lead into
+ * each other) it works level by level:
+ * <ul>
+ *   <li>one forward pass gives every position its immediate wins, what its captures lead to in the smaller
+ *       tables, and a counter of its quiet moves;</li>
+ *   <li>then, for each position decided at distance n, its quiet predecessors are generated by moving a stone
+ *       of the side that just moved back one square: a predecessor of a loss is a win in n + 1, and a
+ *       predecessor whose counter drops to zero (all its quiet moves lose) is a loss in n + 1.</li>
+ * </ul>
+ * Whatever is left undecided is a draw, or unknown where some line leaves the tabulated positions (a long
+ * run spawning a crystal while the opponent keeps three stones).
+ *
+ * Sizes: 3v3 has about 1.5e9 positions (1.5 GB), 4v3 and 3v4 about 2.2e10 each, so in practice the total is 6.
+ * Every level is a parallel pass over the index; values and counters live in memory-mapped files.
+ *
+ * {@code mvn -Ptablebase package -Dtablebase.dir=tablebase -Dtablebase.max-stones=6}
+ */
+public final class TablebaseGenerator {
+
+    private static final long[] NEIGHBOURS = new long[64];
+    // red ranks per leaf task
+    private static final int CHUNK = 64;
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            int r = Board.row(sq);
+            int c = Board.col(sq);
+            if (r > 0) NEIGHBOURS[sq] |= 1L << (sq - 8);
+            if (r < 7) NEIGHBOURS[sq] |= 1L << (sq + 8);
+            if (c > 0) NEIGHBOURS[sq] |= 1L << (sq - 1);
+            if (c < 7) NEIGHBOURS[sq] |= 1L << (sq + 1);
+        }
+    }
+
+    private final Path dir;
+    private final ForkJoinPool pool;
+    // the board: the first squares squares (whole rows), 64 for the real one
+    private final int squares;
+    private final long board;
+    // finished tables, for positions reached by captures
+    private final Map<Integer, Tablebase.Table> done = new HashMap<>();
+
+    public TablebaseGenerator(Path dir, ForkJoinPool pool) {
+        this(dir, pool, 64);
+    }
+
+    /**
+     * Tables for a board of only the first squares / 8 rows: stones stay on it and steps off it are not
+     * legal. Small enough to solve in a test, with exactly the same retrograde passes as the real board.
+     */
+    TablebaseGenerator(Path dir, ForkJoinPool pool, int squares) {
+        this.dir = dir;
+        this.pool = pool;
+        this.squares = squares;
+        this.board = squares == 64 ? -1L : (1L << squares) - 1;
+    }
+
+    public void generate(int maxStones) throws IOException {
+        Files.createDirectories(dir);
+        for (int total = 2 * Rules.MIN_STONES; total <= maxStones; total++) {
+            for (int red = Rules.MIN_STONES; red <= total - red; red++) {
+                solve(red, total - red);
+            }
+        }
+    }
+
+    private void solve(int red, int blue) throws IOException {
+        long start = System.nanoTime();
+        Work a = new Work(new TablebaseIndex(red, blue, squares));
+        Work b = red == blue ? a : new Work(new TablebaseIndex(blue, red, squares));
+        a.partner = b;
+        b.partner = a;
+        Work[] works = a == b ? new Work[]{a} : new Work[]{a, b};
+        try {
+            for (Work w : works) pool.invoke(new Pass(w, Pass.INIT, 0, 0, TablebaseIndex.binomial(squares, w.index.red())));
+            log(red, blue, "initialised", start);
+
+            boolean truncated = false;
+            for (int level = 1; ; level++) {
+                // level + 1 must still fit the distance field
+                if (level >= Tablebase.MAX_PLIES) {
+                    truncated = true;
+                    break;
+                }
+                for (Work w : works) w.applySchedule(level);
+                long decided = 0;
+                for (Work w : works) {
+                    pool.invoke(new Pass(w, Pass.PROPAGATE, level, 0, TablebaseIndex.binomial(squares, w.index.red())));
+                    decided += w.decided.sumThenReset();
+                }
+                if (decided == 0 && level >= a.lastScheduled.get() && level >= b.lastScheduled.get()) break;
+            }
+
+            boolean open = truncated || a.open || b.open;
+            for (Work w : works) {
+                if (open) {
+                    for (long i = 0; i < w.index.size(); i++) {
+                        if (w.values.get(i) == 0) w.values.put(i, Tablebase.UNKNOWN);
+                    }
+                }
+                w.finish();
+                done.put(Tablebase.key(w.index.red(), w.index.blue()), w.asTable());
+            }
+            log(red, blue, open ? "done, undecided positions marked unknown" : "done", start);
+        } finally {
+            for (Work w : works) w.discardCounters();
+        }
+    }
+
+    private static void log(int red, int blue, String what, long start) {
+        System.out.printf("%dv%d %s after %d s%n", red, blue, what, (System.nanoTime() - start) / 1_000_000_000L);
+    }
+
+    /** Value of a position reached by a capture, with the turn handed to blue; UNKNOWN if not tabulated. */
+    private byte afterCapture(Board child) {
+        if (child.crystals() != 0) return Tablebase.UNKNOWN;
+        long mover = child.getBlue();
+        long other = child.getRed();
+        Tablebase.Table table = done.get(Tablebase.key(Long.bitCount(mover), Long.bitCount(other)));
+        if (table == null) return Tablebase.UNKNOWN;
+        return table.values.get(table.index.index(mover, other));
+    }
+
+    /** One material being solved. */
+    private final class Work {
+
+        final TablebaseIndex index;
+        final Path file;
+        final Path counterFile;
+        final FileChannel channel;
+        final FileChannel counterChannel;
+        final MappedBytes values;
+        // quiet moves per position whose outcome is not yet known to lose, plus one if some move draws
+        final MappedBytes counters;
+        // index -> (win distance through a capture) | (minimum loss distance through captures) << 8
+        final Map<Long, Integer> captureLines = new ConcurrentHashMap<>();
+        // index -> level at which a loss is due, when its captures lose more slowly than its quiet moves
+        final Map<Long, Integer> lossDue = new ConcurrentHashMap<>();
+        final AtomicInteger lastScheduled = new AtomicInteger();
+        final LongAdder decided = new LongAdder();
+        volatile boolean open;
+        Work partner;
+
+        Work(TablebaseIndex index) throws IOException {
+            this.index = index;
+            this.file = dir.resolve(Tablebase.fileName(index.red(), index.blue()));
+            this.counterFile = dir.resolve(index.red() + "v" + index.blue() + ".counters");
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.setLength(0);
+                raf.setLength(Tablebase.HEADER_BYTES + index.size());
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(counterFile.toFile(), "rw")) {
+                raf.setLength(0);
+                raf.setLength(index.size());
+            }
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            counterChannel = FileChannel.open(counterFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            values = new MappedBytes(channel, FileChannel.MapMode.READ_WRITE, Tablebase.HEADER_BYTES, index.size());
+            counters = new MappedBytes(counterChannel, FileChannel.MapMode.READ_WRITE, 0, index.size());
+        }
+
+        void schedule(long i, int winPlies, int lossPlies) {
+            captureLines.put(i, winPlies | lossPlies << 8);
+            lastScheduled.accumulateAndGet(Math.max(winPlies, lossPlies), Math::max);
+        }
+
+        void applySchedule(int level) {
+            captureLines.forEach((i, line) -> {
+                if ((line & 0xFF) == level && values.get(i) == 0) values.put(i, Tablebase.win(level));
+            });
+            lossDue.forEach((i, due) -> {
+                if (due == level && values.get(i) == 0) values.put(i, Tablebase.loss(level));
+            });
+        }
+
+        /** A quiet move of position i was found to lose at this level and it was the last one left. */
+        void allQuietMovesLose(long i, int level) {
+            Integer line = captureLines.get(i);
+            // a winning capture decides it at its own level
+            if (line != null && (line & 0xFF) != 0) return;
+            int lossPlies = Math.max(level + 1, line != null ? line >>> 8 : 0);
+            if (lossPlies == level + 1) {
+                values.put(i, Tablebase.loss(level + 1));
+            } else {
+                lossDue.put(i, lossPlies);
+                lastScheduled.accumulateAndGet(lossPlies, Math::max);
+            }
+        }
+
+        void finish() throws IOException {
+            values.force();
+            ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_BYTES);
+            header.putInt(Tablebase.MAGIC).put((byte) index.red()).put((byte) index.blue())
+                    .putShort((short) (index.squares() == 64 ? 0 : index.squares()))
+                    .putLong(index.size()).flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+
+        Tablebase.Table asTable() {
+            return new Tablebase.Table(index, values);
+        }
+
+        void discardCounters() throws IOException {
+            channel.close();
+            counterChannel.close();
+            Files.deleteIfExists(counterFile);
+        }
+    }
+
+    /** A parallel walk over the positions of red ranks [from, to) of one material, in index order. */
+    private final class Pass extends RecursiveAction {
+
+        static final int INIT = 0;
+        static final int PROPAGATE = 1;
+
+        private final Work w;
+        private final int kind;
+        private final int level;
+        private final long from;
+        private final long to;
+
+        Pass(Work w, int kind, int level, long from, long to) {
+            this.w = w;
+            this.kind = kind;
+            this.level = level;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                long mid = (from + to) >>> 1;
+                invokeAll(new Pass(w, kind, level, from, mid), new Pass(w, kind, level, mid, to));
+                return;
+            }
+            int reds = w.index.red();
+            int blues = w.index.blue();
+            // blue placements among the free squares that are on the board
+            long limit = 1L << (squares - reds);
+            int[] free = new int[64];
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            Board board = new Board();
+            Board child = new Board();
+            byte win = Tablebase.win(level);
+            byte loss = Tablebase.loss(level);
+
+            long red = TablebaseIndex.unrank(from, reds);
+            for (long r = from; r < to; r++, red = TablebaseIndex.nextCombination(red)) {
+                TablebaseIndex.freeSquares(red, free);
+                long i = r * w.index.blueCount();
+                for (long c = (1L << blues) - 1; c != 0 && c < limit; c = TablebaseIndex.nextCombination(c), i++) {
+                    if (kind == INIT) {
+                        init(i, red, TablebaseIndex.expand(c, free), board, child, moves);
+                    } else {
+                        byte v = w.values.get(i);
+                        if (v == win || v == loss) {
+                            propagate(red, TablebaseIndex.expand(c, free), v == loss, board);
+                            w.decided.increment();
+                        }
+                    }
+                }
+            }
+        }
+
+        private void init(long i, long red, long blue, Board board, Board child, int[] moves) {
+            board.set(red, blue, 0L, 0L, 0L, Board.RED);
+            int n = onBoard(MoveGenerator.generate(board, moves), moves);
+            int quiet = 0;
+            boolean escape = n == 0;
+            int winPlies = 0;
+            int lossPlies = 0;
+            for (int k = 0; k < n; k++) {
+                child.copyFrom(board);
+                long removed = Rules.apply(child, moves[k]);
+                Outcome outcome = Rules.outcome(child);
+                if (outcome.isFinished()) {
+                    if (outcome == Outcome.DRAW) {
+                        escape = true;
+                        continue;
+                    }
+                    if (outcome.winner() == Board.RED) {
+                        winPlies = 1;
+                        break;
+                    }
+                    lossPlies = Math.max(lossPlies, 1);
+                    continue;
+                }
+                if (removed == 0) {
+                    quiet++;
+                    continue;
+                }
+                byte v = afterCapture(child);
+                if (v == Tablebase.UNKNOWN || Tablebase.plies(v) >= Tablebase.MAX_PLIES) {
+                    escape = true;
+                    w.open = true;
+                } else if (Tablebase.isLoss(v)) {
+                    int plies = Tablebase.plies(v) + 1;
+                    winPlies = winPlies == 0 ? plies : Math.min(winPlies, plies);
+                } else if (Tablebase.isWin(v)) {
+                    lossPlies = Math.max(lossPlies, Tablebase.plies(v) + 1);
+                } else {
+                    escape = true;
+                }
+            }
+
+            if (winPlies == 1) {
+                w.values.put(i, Tablebase.win(1));
+            } else if (quiet == 0) {
+                if (winPlies > 0) w.values.put(i, Tablebase.win(winPlies));
+                else if (!escape) w.values.put(i, Tablebase.loss(lossPlies));
+            } else {
+                w.counters.put(i, (byte) (quiet + (escape ? 1 : 0)));
+                // a loss through quiet moves takes at least two plies, so shorter capture losses never matter
+                if (winPlies > 0 || lossPlies > 2) w.schedule(i, winPlies, lossPlies);
+            }
+        }
+
+        // the position was decided at this level; update the positions one quiet move before it
+        private void propagate(long red, long blue, boolean lost, Board board) {
+            Work q = w.partner;
+            long occupied = red | blue;
+            for (long stones = blue; stones != 0; stones &= stones - 1) {
+                int to = Long.numberOfTrailingZeros(stones);
+                for (long back = NEIGHBOURS[to] & ~occupied & TablebaseGenerator.this.board; back != 0; back &= back - 1) {
+                    int from = Long.numberOfTrailingZeros(back);
+                    // before the move, with the colours swapped so the side that moved is red
+                    long prevRed = blue ^ (1L << to) ^ (1L << from);
+                    board.set(prevRed, red, 0L, 0L, 0L, Board.RED);
+                    if (Rules.apply(board, Move.step(from, to)) != 0) continue;
+
+                    long j = q.index.index(prevRed, red);
+                    if (q.values.get(j) != 0) continue;
+                    if (lost) {
+                        q.values.put(j, Tablebase.win(level + 1));
+                    } else if (q.counters.decrement(j) == 1) {
+                        q.allQuietMovesLose(j, level);
+                    }
+                }
+            }
+        }
+    }
+
+    // drops the steps that leave a smaller board; returns how many moves are left
+    private int onBoard(int n, int[] moves) {
+        if (squares == 64) return n;
+        int kept = 0;
+        for (int k = 0; k < n; k++) {
+            if ((board & (1L << Move.to(moves[k]))) != 0) moves[kept++] = moves[k];
+        }
+        return kept;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Path.of(args.length > 0 ? args[0] : "tablebase");
+        int maxStones = args.length > 1 ? Integer.parseInt(args[1]) : 2 * Rules.MIN_STONES;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            new TablebaseGenerator(dir, pool).generate(maxStones);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
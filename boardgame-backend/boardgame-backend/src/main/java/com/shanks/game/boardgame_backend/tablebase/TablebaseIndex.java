@@ -0,0 +1,153 @@
+package com.shanks.game.boardgame_backend.tablebase;
+
+/**
+ * Perfect hash of the stone-only positions with a given number of red and blue stones, red to move.
+ * The red squares are ranked in the combinatorial number system (colex order of the square sets) and the
+ * blue squares likewise among the 64 - red squares left free, so every position gets a distinct index
+ * in [0, size) and nothing in that range is unused.
+ *
+ * An index can be limited to the first n squares (whole rows: a board of n / 8 rows). The ranks of square
+ * sets inside them are exactly the first C(n, k), so the numbering is the full board's, cut short.
+ *
+ * Colex order of k-bit masks is plain numeric order, so walking the index in order is walking the masks
+ * with {@link #nextCombination}.
+ */
+public final class TablebaseIndex {
+
+    // C(n, k) for n <= 64, k <= MAX_STONES
+    static final int MAX_STONES = 8;
+    private static final long[][] BINOMIAL = new long[65][MAX_STONES + 1];
+
+    static {
+        for (int n = 0; n <= 64; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, MAX_STONES); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private final int red;
+    private final int blue;
+    private final int squares;
+    private final long blueCount;
+    private final long size;
+
+    public TablebaseIndex(int red, int blue) {
+        this(red, blue, 64);
+    }
+
+    public TablebaseIndex(int red, int blue, int squares) {
+        if (red < 1 || blue < 1 || red > MAX_STONES || blue > MAX_STONES) {
+            throw new IllegalArgumentException("Unsupported material " + red + "v" + blue);
+        }
+        if (squares < 8 || squares > 64 || squares % 8 != 0 || red + blue > squares) {
+            throw new IllegalArgumentException("Unsupported board of " + squares + " squares");
+        }
+        this.red = red;
+        this.blue = blue;
+        this.squares = squares;
+        this.blueCount = binomial(squares - red, blue);
+        this.size = binomial(squares, red) * blueCount;
+    }
+
+    public static long binomial(int n, int k) {
+        return k > n ? 0 : BINOMIAL[n][k];
+    }
+
+    public int red() {
+        return red;
+    }
+
+    public int blue() {
+        return blue;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /** Squares 0 .. squares - 1 are the board; 64 for the real one. */
+    public int squares() {
+        return squares;
+    }
+
+    /** Mask of the squares this index covers. */
+    public long board() {
+        return squares == 64 ? -1L : (1L << squares) - 1;
+    }
+
+    /** Whether both masks lie on this index's board. */
+    public boolean contains(long redMask, long blueMask) {
+        return ((redMask | blueMask) & ~board()) == 0;
+    }
+
+    /** Number of blue placements per red placement; indexes of one red set are contiguous. */
+    long blueCount() {
+        return blueCount;
+    }
+
+    public long index(long redMask, long blueMask) {
+        return rank(redMask) * blueCount + rank(compress(blueMask, redMask));
+    }
+
+    /** Colex rank of a square set: sum of C(square, i + 1) over its squares in ascending order. */
+    static long rank(long mask) {
+        long r = 0;
+        for (int i = 1; mask != 0; i++) {
+            r += BINOMIAL[Long.numberOfTrailingZeros(mask)][i];
+            mask &= mask - 1;
+        }
+        return r;
+    }
+
+    /** The k-square set of the given colex rank. */
+    static long unrank(long rank, int k) {
+        long mask = 0;
+        int n = 64;
+        for (int i = k; i >= 1; i--) {
+            do n--; while (BINOMIAL[n][i] > rank);
+            rank -= BINOMIAL[n][i];
+            mask |= 1L << n;
+        }
+        return mask;
+    }
+
+    // renumber the squares of mask skipping those in removed (which must not overlap it)
+    static long compress(long mask, long removed) {
+        long out = 0;
+        while (mask != 0) {
+            int sq = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            out |= 1L << (sq - Long.bitCount(removed & ((1L << sq) - 1)));
+        }
+        return out;
+    }
+
+    /** Inverse of compress: spreads the bits of compressed over the squares free lists in order. */
+    static long expand(long compressed, int[] free) {
+        long out = 0;
+        while (compressed != 0) {
+            out |= 1L << free[Long.numberOfTrailingZeros(compressed)];
+            compressed &= compressed - 1;
+        }
+        return out;
+    }
+
+    /** Squares not in mask, ascending; returns how many were written. */
+    static int freeSquares(long mask, int[] out) {
+        int n = 0;
+        for (long rest = ~mask; rest != 0; rest &= rest - 1) {
+            out[n++] = Long.numberOfTrailingZeros(rest);
+        }
+        return n;
+    }
+
+    /** Next mask with the same number of bits in numeric order (Gosper's hack); 0 past the last one. */
+    static long nextCombination(long mask) {
+        long lowest = mask & -mask;
+        long ripple = mask + lowest;
+        if (ripple == 0) return 0;
+        return (((ripple ^ mask) >>> 2) / lowest) | ripple;
+    }
+}
@@ -0,0 +1,206 @@
+package com.shanks.game.boardgame_backend.usernames;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case-insensitive substring index over usernames. Every username is split into its 1-, 2- and 3-grams,
+ * each gram keeps the sorted ids of the users containing it. A query walks the shortest posting list of
+ * its own grams and checks the candidates, so a keystroke never scans all users.
+ * Thread-safe: reads share a lock, writes are exclusive.
+ */
+public class UsernameIndex {
+
+    public static final int GRAM = 3;
+
+    /** One matching user; matchAt is where the query starts inside the username. */
+    public record Hit(long userId, String username, int matchAt) {
+    }
+
+    public record Result(int total, List<Hit> hits) {
+    }
+
+    private record Name(String display, String lower) {
+    }
+
+    private record Candidate(long id, Name name, int at) {
+    }
+
+    // exact name, then prefixes, then earlier matches, then shorter names, then alphabetical
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparingInt((Candidate c) -> c.at == 0 ? 0 : 1)
+            .thenComparingInt(c -> c.at)
+            .thenComparingInt(c -> c.name.lower.length())
+            .thenComparing(c -> c.name.lower)
+            .thenComparingLong(c -> c.id);
+
+    /** Sorted, growable set of ids. */
+    private static final class Posting {
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) return;
+            at = -at - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) return;
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+        }
+    }
+
+    private final Map<Long, Name> names = new HashMap<>();
+    private final Map<String, Posting> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Adds the user or moves them to their new username. */
+    public void put(long userId, String username) {
+        if (username == null) return;
+        Name name = new Name(username, normalize(username));
+        lock.writeLock().lock();
+        try {
+            Name previous = names.put(userId, name);
+            if (previous != null) {
+                if (previous.lower.equals(name.lower)) return;
+                for (String gram : grams(previous.lower)) {
+                    Posting posting = postings.get(gram);
+                    posting.remove(userId);
+                    if (posting.size == 0) postings.remove(gram);
+                }
+            }
+            for (String gram : grams(name.lower)) {
+                postings.computeIfAbsent(gram, g -> new Posting()).add(userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            Name previous = names.remove(userId);
+            if (previous == null) return;
+            for (String gram : grams(previous.lower)) {
+                Posting posting = postings.get(gram);
+                posting.remove(userId);
+                if (posting.size == 0) postings.remove(gram);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Users whose name contains the query, best first, skipping offset and returning at most limit.
+     * When within is not null only those ids are considered.
+     */
+    public Result search(String query, Set<Long> within, int offset, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) return new Result(0, List.of());
+        int n = Math.min(GRAM, q.length());
+        int keep = offset + limit;
+
+        lock.readLock().lock();
+        try {
+            // the rarest gram of the query bounds the candidates
+            Posting rarest = null;
+            for (int i = 0; i + n <= q.length(); i++) {
+                Posting posting = postings.get(q.substring(i, i + n));
+                if (posting == null) return new Result(0, List.of());
+                if (rarest == null || posting.size < rarest.size) rarest = posting;
+            }
+
+            PriorityQueue<Candidate> best = new PriorityQueue<>(Math.min(keep, 64) + 1, RANKING.reversed());
+            int total = 0;
+            if (within != null && within.size() < rarest.size) {
+                for (Long id : within) {
+                    if (offer(id, q, best, keep)) total++;
+                }
+            } else {
+                for (int i = 0; i < rarest.size; i++) {
+                    long id = rarest.ids[i];
+                    if (within != null && !within.contains(id)) continue;
+                    if (offer(id, q, best, keep)) total++;
+                }
+            }
+            return new Result(total, page(best, offset));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result search(String query, int offset, int limit) {
+        return search(query, null, offset, limit);
+    }
+
+    // true when the user matches; keeps only the best keep candidates
+    private boolean offer(long id, String q, PriorityQueue<Candidate> best, int keep) {
+        Name name = names.get(id);
+        if (name == null) return false;
+        int at = name.lower.indexOf(q);
+        if (at < 0) return false;
+        Candidate candidate = new Candidate(id, name, at);
+        if (best.size() < keep) {
+            best.add(candidate);
+        } else if (RANKING.compare(candidate, best.peek()) < 0) {
+            best.poll();
+            best.add(candidate);
+        }
+        return true;
+    }
+
+    private static List<Hit> page(PriorityQueue<Candidate> best, int offset) {
+        List<Candidate> sorted = new ArrayList<>(best);
+        sorted.sort(RANKING);
+        List<Hit> hits = new ArrayList<>(Math.max(0, sorted.size() - offset));
+        for (int i = offset; i < sorted.size(); i++) {
+            Candidate c = sorted.get(i);
+            hits.add(new Hit(c.id, c.name.display, c.at));
+        }
+        return hits;
+    }
+
+    static String normalize(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // every distinct gram of length 1 .. GRAM
+    static Collection<String> grams(String lower) {
+        Set<String> out = new HashSet<>();
+        for (int n = 1; n <= GRAM; n++) {
+            for (int i = 0; i + n <= lower.length(); i++) {
+                out.add(lower.substring(i, i + n));
+            }
+        }
+        return out;
+    }
+}
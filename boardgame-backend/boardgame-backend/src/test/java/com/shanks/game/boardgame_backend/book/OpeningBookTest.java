@@ -0,0 +1,69 @@
+package com.shanks.game.boardgame_backend.book;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.engine.Rules;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void looksUpSortedEntries() throws IOException {
+        Path file = dir.resolve("small.book");
+        long[] keys = {42L, -7L, Long.MAX_VALUE, 0L, Long.MIN_VALUE};
+        int[] moves = {1, 2, 3, 4, 5};
+        OpeningBook.write(file, keys, moves, new int[]{10, 20, 30, 40, 50}, new int[5], 1, 1);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(5, book.size());
+        for (int i = 0; i < keys.length; i++) {
+            int entry = book.find(keys[i]);
+            assertTrue(entry >= 0);
+            assertEquals(moves[i], book.move(entry));
+            assertEquals(moves[i] * 10, book.score(entry));
+        }
+        assertEquals(-1, book.find(43L));
+        assertEquals(-1, book.find(-8L));
+    }
+
+    @Test
+    void followsTheBookFromTheInitialPosition() throws IOException {
+        Path file = dir.resolve("opening.book");
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            new OpeningBookGenerator(4, 3, pool).generate(file);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        OpeningBook book = OpeningBook.open(file);
+        Board b = Board.initial();
+        for (int ply = 0; ply < 4; ply++) {
+            int move = book.move(b);
+            assertNotEquals(Move.NONE, move, "ply " + ply);
+            assertTrue(Rules.isLegal(b, move));
+            Rules.apply(b, move);
+        }
+        assertEquals(Move.NONE, book.move(b));
+    }
+
+    @Test
+    void missingFileIsAnEmptyBookAndGarbageIsRejected() throws IOException {
+        assertEquals(0, OpeningBook.open(dir.resolve("none.book")).size());
+        Path garbage = dir.resolve("garbage.book");
+        Files.write(garbage, new byte[64]);
+        assertThrows(IOException.class, () -> OpeningBook.open(garbage));
+    }
+}
@@ -0,0 +1,52 @@
+package com.shanks.game.boardgame_backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpires() {
+        AtomicLong now = new AtomicLong();
+        BoundedCache<Integer, String> cache = new BoundedCache<>(2, 100, now::get);
+
+        cache.put(1, "a");
+        cache.put(2, "b");
+        assertEquals("a", cache.getIfPresent(1));
+        cache.put(3, "c");
+
+        // 2 was the least recently used
+        assertNull(cache.getIfPresent(2));
+        assertEquals("a", cache.getIfPresent(1));
+        assertEquals(1, cache.evictions());
+
+        now.addAndGet(100_000_000L);
+        assertNull(cache.getIfPresent(1));
+        assertEquals(1, cache.expirations());
+        assertEquals(1, cache.purgeExpired());
+        assertEquals(0, cache.size());
+
+        assertEquals(2, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    void dropsLoadRacingAnInvalidation() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, 60_000);
+
+        String loaded = cache.get(1, key -> {
+            // a writer invalidates the key while the old row is being read
+            cache.invalidate(key);
+            return "stale";
+        });
+        assertEquals("stale", loaded);
+        assertNull(cache.getIfPresent(1));
+
+        assertEquals("fresh", cache.get(1, key -> "fresh"));
+        assertEquals("fresh", cache.get(1, key -> "unused"));
+        assertEquals(1, cache.hits());
+    }
+}
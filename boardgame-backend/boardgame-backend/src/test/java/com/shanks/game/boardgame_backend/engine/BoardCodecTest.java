@@ -0,0 +1,35 @@
+package com.shanks.game.boardgame_backend.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardCodecTest {
+
+    @Test
+    void roundTripsEveryPieceKind() {
+        Board b = Board.initial();
+        b.setPiece(Board.square(3, 3), "red-quad");
+        b.setPiece(Board.square(3, 4), "blue-star");
+        b.setPiece(Board.square(4, 4), "red-hexa");
+        b.setTurn(Board.BLUE);
+
+        byte[] bytes = BoardCodec.encode(b);
+
+        assertEquals(BoardCodec.LENGTH, bytes.length);
+        assertEquals(b, BoardCodec.decode(bytes));
+    }
+
+    @Test
+    void decodesWhatTheJsonFormatDescribes() {
+        Board fromJson = BoardJson.read(BoardJson.write(Board.initial()));
+        assertEquals(Board.initial(), BoardCodec.decode(BoardCodec.encode(fromJson)));
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        byte[] bytes = BoardCodec.encode(Board.initial());
+        bytes[0] = 9;
+        assertThrows(IllegalArgumentException.class, () -> BoardCodec.decode(bytes));
+    }
+}
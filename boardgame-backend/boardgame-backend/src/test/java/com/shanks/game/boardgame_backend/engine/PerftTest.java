@@ -0,0 +1,53 @@
+package com.shanks.game.boardgame_backend.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Golden counts, produced by running the same walk over GameBoard.jsx's checkAndDestroy and activation code. */
+class PerftTest {
+
+    private static final long[] INITIAL = {1, 8, 64, 864, 11_664, 173_656, 2_585_182};
+
+    // both sides with stones and every crystal kind, red to move
+    private static final String MIDDLEGAME = "{\"turn\":\"red\",\"board\":["
+            + "[\"red\",\"red\",null,null,null,null,null,null],"
+            + "[null,null,null,\"red-quad\",null,null,null,null],"
+            + "[null,null,\"blue\",null,null,\"red\",null,null],"
+            + "[null,null,\"red-star\",null,\"blue\",null,null,null],"
+            + "[null,null,null,null,\"red\",\"red\",\"blue\",null],"
+            + "[null,null,\"blue-hexa\",null,null,null,null,null],"
+            + "[\"blue-quad\",null,null,null,null,null,\"blue\",null],"
+            + "[null,null,null,null,null,null,null,\"blue\"]]}";
+
+    private static final long[] MIDDLE = {1, 20, 452, 9_023, 196_507};
+
+    @Test
+    void initialPosition() {
+        for (int depth = 0; depth < INITIAL.length; depth++) {
+            assertEquals(INITIAL[depth], Perft.count(Board.initial(), depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    void middlegameWithCrystals() {
+        Board board = BoardJson.read(MIDDLEGAME);
+        for (int depth = 0; depth < MIDDLE.length; depth++) {
+            assertEquals(MIDDLE[depth], Perft.count(board, depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    void parallelCountMatches() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Perft.Result result = Perft.run(BoardJson.read(MIDDLEGAME), 4, pool);
+            assertEquals(MIDDLE[4], result.positions());
+            assertEquals(INITIAL[5], Perft.run(Board.initial(), 5, pool).positions());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.shanks.game.boardgame_backend.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RulesTest {
+
+    private static Board board(String... rows) {
+        Board b = new Board();
+        for (int r = 0; r < rows.length; r++) {
+            for (int c = 0; c < rows[r].length(); c++) {
+                String piece = switch (rows[r].charAt(c)) {
+                    case 'R' -> "red";
+                    case 'B' -> "blue";
+                    case 'Q' -> "red-quad";
+                    case 'S' -> "red-star";
+                    case 'H' -> "red-hexa";
+                    default -> null;
+                };
+                b.setPiece(Board.square(r, c), piece);
+            }
+        }
+        return b;
+    }
+
+    @Test
+    void initialBoardOnlyAllowsFrontRowStepsForRed() {
+        Board b = Board.initial();
+        assertTrue(Rules.isLegal(b, Move.step(Board.square(1, 3), Board.square(2, 3))));
+        assertFalse(Rules.isLegal(b, Move.step(Board.square(0, 3), Board.square(1, 3))));
+        assertFalse(Rules.isLegal(b, Move.step(Board.square(6, 3), Board.square(5, 3))));
+        assertFalse(Rules.isLegal(b, Move.step(Board.square(1, 3), Board.square(3, 3))));
+        assertEquals(Outcome.ONGOING, Rules.outcome(b));
+    }
+
+    @Test
+    void tripleDestroysEnemiesOnBothEnds() {
+        Board b = board(
+                "BRR.B...",
+                "...R....");
+        long removed = Rules.apply(b, Move.step(Board.square(1, 3), Board.square(0, 3)));
+
+        assertEquals((1L << Board.square(0, 0)) | (1L << Board.square(0, 4)), removed);
+        assertNull(b.pieceAt(Board.square(0, 0)));
+        assertNull(b.pieceAt(Board.square(0, 4)));
+        assertEquals("red", b.pieceAt(Board.square(0, 3)));
+        assertEquals(Board.BLUE, b.getTurn());
+    }
+
+    @Test
+    void exactQuadPrefersAfterSideAndUpgradesThatEndpoint() {
+        Board b = board(
+                "BRRR.B..",
+                "....R...");
+        Rules.apply(b, Move.step(Board.square(1, 4), Board.square(0, 4)));
+
+        assertNull(b.pieceAt(Board.square(0, 5)));
+        assertEquals("blue", b.pieceAt(Board.square(0, 0)));
+        assertEquals("red-quad", b.pieceAt(Board.square(0, 4)));
+        assertEquals("red", b.pieceAt(Board.square(0, 1)));
+    }
+
+    @Test
+    void starActivationClearsEnemiesInRowAndConsumesStar() {
+        Board b = board(
+                "B..S..BB",
+                "B.......");
+        int move = Move.activate(Board.square(0, 3));
+        assertTrue(Rules.isLegal(b, move));
+        Rules.apply(b, move);
+
+        assertEquals(0L, b.getRed());
+        assertEquals(1L << Board.square(1, 0), b.getBlue());
+        assertEquals(Outcome.DRAW, Rules.outcome(b));
+    }
+
+    @Test
+    void activationWithoutTargetsIsIllegal() {
+        Board b = board(
+                "...Q....",
+                "........",
+                "......B.");
+        assertFalse(Rules.isLegal(b, Move.activate(Board.square(0, 3))));
+    }
+}
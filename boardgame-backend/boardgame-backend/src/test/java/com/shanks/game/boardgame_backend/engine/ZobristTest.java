@@ -0,0 +1,70 @@
+package com.shanks.game.boardgame_backend.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZobristTest {
+
+    @Test
+    void incrementalKeyMatchesFullRecomputeOverRandomGames() {
+        Random random = new Random(7);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 200; game++) {
+            Board b = Board.initial();
+            for (int ply = 0; ply < 200 && !Rules.outcome(b).isFinished(); ply++) {
+                int n = MoveGenerator.generate(b, moves);
+                if (n == 0) break;
+                Rules.apply(b, moves[random.nextInt(n)]);
+                assertEquals(Zobrist.of(b), b.hash());
+            }
+            assertEquals(b.hash(), BoardCodec.decode(BoardCodec.encode(b)).hash());
+            assertEquals(b.hash(), BoardJson.read(BoardJson.write(b)).hash());
+        }
+    }
+
+    @Test
+    void sideToMoveChangesTheKey() {
+        Board red = Board.initial();
+        Board blue = Board.initial();
+        blue.setTurn(Board.BLUE);
+        assertNotEquals(red.hash(), blue.hash());
+    }
+
+    @Test
+    void shufflingBackAndForthRepeatsThreeTimes() {
+        Board b = Board.initial();
+        PositionHistory history = new PositionHistory();
+        history.add(b.hash());
+        int redOut = firstStep(b);
+        int count = 0;
+        for (int i = 0; i < 2; i++) {
+            Rules.apply(b, redOut);
+            history.add(b.hash());
+            int blueOut = firstStep(b);
+            Rules.apply(b, blueOut);
+            history.add(b.hash());
+            Rules.apply(b, Move.step(Move.to(redOut), Move.from(redOut)));
+            history.add(b.hash());
+            Rules.apply(b, Move.step(Move.to(blueOut), Move.from(blueOut)));
+            count = history.add(b.hash());
+        }
+        assertEquals(Board.initial(), b);
+        assertEquals(3, count);
+        assertEquals(9, history.size());
+
+        history.clear();
+        assertEquals(0, history.count(b.hash()));
+    }
+
+    private static int firstStep(Board b) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.generate(b, moves);
+        for (int i = 0; i < n; i++) {
+            if (!Move.isActivation(moves[i])) return moves[i];
+        }
+        throw new AssertionError("no step");
+    }
+}
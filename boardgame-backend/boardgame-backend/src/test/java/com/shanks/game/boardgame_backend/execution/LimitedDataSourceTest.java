@@ -0,0 +1,48 @@
+package com.shanks.game.boardgame_backend.execution;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitedDataSourceTest {
+
+    @Test
+    void holdsAPermitUntilTheConnectionIsClosed() throws SQLException {
+        AtomicInteger closed = new AtomicInteger();
+        LimitedDataSource limited = new LimitedDataSource(database(closed), 2, 50);
+
+        Connection first = limited.getConnection();
+        Connection second = limited.getConnection();
+        assertEquals(0, limited.available());
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+
+        first.close();
+        first.close();
+        assertEquals(2, closed.get());
+        assertEquals(1, limited.available());
+        assertTrue(second.isValid(0));
+
+        limited.getConnection().close();
+        second.close();
+        assertEquals(2, limited.available());
+    }
+
+    private static DataSource database(AtomicInteger closed) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("getConnection")) return null;
+                    return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                            (c, m, a) -> {
+                                if (m.getName().equals("close")) closed.incrementAndGet();
+                                return m.getName().equals("isValid") ? true : null;
+                            });
+                });
+    }
+}
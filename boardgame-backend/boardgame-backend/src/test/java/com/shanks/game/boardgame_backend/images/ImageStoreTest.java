@@ -0,0 +1,91 @@
+package com.shanks.game.boardgame_backend.images;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storesOnceByContentWithThumbnails() throws IOException {
+        ImageStore store = store(1 << 20);
+        byte[] png = png(600, 400);
+
+        String hash = store.store(new ByteArrayInputStream(png));
+        assertEquals(hash, store.store(new ByteArrayInputStream(png)));
+        assertEquals(hash, ImageStore.hashOf("http://localhost:8080" + ImageStore.url(hash, ImageStore.Variant.SMALL)));
+
+        ImageStore.ImageFile original = store.find(hash, ImageStore.Variant.ORIGINAL);
+        assertEquals("image/png", original.contentType());
+        assertArrayEquals(png, Files.readAllBytes(original.path()));
+
+        BufferedImage medium = ImageIO.read(store.find(hash, ImageStore.Variant.MEDIUM).path().toFile());
+        assertEquals(256, medium.getWidth());
+        assertEquals(256, medium.getHeight());
+        BufferedImage small = ImageIO.read(store.find(hash, ImageStore.Variant.SMALL).path().toFile());
+        assertEquals(64, small.getWidth());
+
+        // the upload temp files are gone, only the three renditions are left
+        try (var files = Files.walk(dir)) {
+            assertEquals(3, files.filter(Files::isRegularFile).count());
+        }
+        assertNull(store.find("../../etc/passwd", ImageStore.Variant.ORIGINAL));
+    }
+
+    @Test
+    void rejectsNonImagesAndOversizedUploads() throws IOException {
+        ImageStore store = store(1000);
+        assertThrows(IllegalArgumentException.class,
+                () -> store.store(new ByteArrayInputStream("not an image".getBytes())));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.store(new ByteArrayInputStream(new byte[2000])));
+    }
+
+    @Test
+    void undecodableUploadLeavesNothingBehind() throws IOException {
+        ImageStore store = store(1 << 20);
+        byte[] png = png(600, 400);
+        // a valid header, so the format is detected, but the pixel data is cut off
+        byte[] truncated = Arrays.copyOf(png, png.length / 2);
+
+        assertThrows(IOException.class, () -> store.store(new ByteArrayInputStream(truncated)));
+        try (var files = Files.walk(dir)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    private ImageStore store(long maxBytes) throws IOException {
+        ImageStore store = new ImageStore();
+        ReflectionTestUtils.setField(store, "dir", dir.toString());
+        ReflectionTestUtils.setField(store, "maxBytes", maxBytes);
+        ReflectionTestUtils.setField(store, "hotMaxEntries", 16);
+        ReflectionTestUtils.setField(store, "hotMaxBytes", 65536);
+        ReflectionTestUtils.setField(store, "hotTtlMs", 60_000L);
+        store.init();
+        return store;
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) image.setRGB(x, y, (x * 31) ^ (y * 17));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,74 @@
+package com.shanks.game.boardgame_backend.ranking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankIndexTest {
+
+    @Test
+    void ordersByPointsThenIdAndTiesShareARank() {
+        RankIndex index = new RankIndex();
+        index.put(3, "c", 10);
+        index.put(1, "a", 10);
+        index.put(2, "b", 25);
+
+        assertEquals(1, index.rankOf(2));
+        assertEquals(2, index.rankOf(1));
+        assertEquals(2, index.rankOf(3));
+        assertEquals(List.of(1, 2, 2), index.page(0, 10).stream().map(RankIndex.Entry::rank).toList());
+        assertEquals(0, index.rankOf(99));
+
+        index.put(3, "c", 30);
+        assertEquals(1, index.rankOf(3));
+        assertEquals(List.of(3L, 2L, 1L), index.page(0, 10).stream().map(RankIndex.Entry::userId).toList());
+    }
+
+    @Test
+    void matchesSortedListUnderRandomUpdates() {
+        RankIndex index = new RankIndex();
+        Map<Long, Integer> points = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 5000; i++) {
+            long id = random.nextInt(400);
+            if (random.nextInt(10) == 0) {
+                index.remove(id);
+                points.remove(id);
+            } else {
+                int p = random.nextInt(60);
+                index.put(id, "u" + id, p);
+                points.put(id, p);
+            }
+        }
+
+        List<Long> expected = new ArrayList<>(points.keySet());
+        expected.sort(Comparator.<Long>comparingInt(points::get).reversed().thenComparing(Comparator.naturalOrder()));
+
+        assertEquals(expected.size(), index.size());
+        // RANK(): one plus the number of players with more points
+        int[] ranks = new int[expected.size()];
+        for (int i = 0; i < expected.size(); i++) {
+            boolean tied = i > 0 && points.get(expected.get(i)).equals(points.get(expected.get(i - 1)));
+            ranks[i] = tied ? ranks[i - 1] : i + 1;
+            assertEquals(ranks[i], index.rankOf(expected.get(i)));
+        }
+        List<RankIndex.Entry> page = index.page(50, 25);
+        assertEquals(25, page.size());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(expected.get(50 + i), page.get(i).userId());
+            assertEquals(ranks[50 + i], page.get(i).rank());
+        }
+        List<RankIndex.Entry> last = index.page(expected.size() - 5, 10);
+        assertEquals(5, last.size());
+        assertEquals(expected.get(expected.size() - 1), last.get(4).userId());
+        assertTrue(index.page(expected.size(), 10).isEmpty());
+    }
+}
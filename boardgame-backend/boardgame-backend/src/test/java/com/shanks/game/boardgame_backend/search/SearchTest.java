@@ -0,0 +1,43 @@
+package com.shanks.game.boardgame_backend.search;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.engine.Rules;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTest {
+
+    @Test
+    void takesTheWinningActivation() {
+        // blue is down to three stones on row 5; red's star on that row wipes them out
+        Board b = new Board();
+        for (int c = 0; c < 4; c++) b.setPiece(Board.square(0, c), "red");
+        b.setPiece(Board.square(5, 0), "red-star");
+        b.setPiece(Board.square(5, 3), "blue");
+        b.setPiece(Board.square(5, 5), "blue");
+        b.setPiece(Board.square(5, 7), "blue");
+        b.setTurn(Board.RED);
+
+        try (Search search = new Search(2, 1)) {
+            SearchResult result = search.search(b, 2000, 8);
+            assertEquals(Move.activate(Board.square(5, 0)), result.bestMove());
+            assertTrue(result.score() >= Search.WIN - Search.MAX_PLY);
+        }
+    }
+
+    @Test
+    void playsLegalMovesWithinTheBudget() {
+        Board b = Board.initial();
+        try (Search search = new Search(2, 1)) {
+            for (int i = 0; i < 4; i++) {
+                SearchResult result = search.search(b, 100, 64);
+                assertTrue(Rules.isLegal(b, result.bestMove()), Move.toString(result.bestMove()));
+                assertTrue(result.elapsedMs() < 1000);
+                assertTrue(result.depth() >= 1);
+                Rules.apply(b, result.bestMove());
+            }
+        }
+    }
+}
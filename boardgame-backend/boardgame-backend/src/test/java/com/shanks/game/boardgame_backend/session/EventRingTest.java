@@ -0,0 +1,44 @@
+package com.shanks.game.boardgame_backend.session;
+
+import com.shanks.game.boardgame_backend.dto.event.GameEvent;
+import com.shanks.game.boardgame_backend.dto.event.SnapshotEvent;
+import com.shanks.game.boardgame_backend.engine.Board;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRingTest {
+
+    @Test
+    void replaysWhatIsStillBufferedAndNothingElse() {
+        long base = 5_000;
+        EventRing ring = new EventRing(4);
+        assertEquals(List.of(), ring.after(0));
+
+        for (long seq = base + 1; seq <= base + 3; seq++) ring.add(event(seq));
+        // numbered from the session's seed, not from 1
+        assertEquals(base + 1, ring.oldest());
+        assertEquals(List.of(base + 2, base + 3), seqs(ring.after(base + 1)));
+        assertEquals(List.of(base + 1, base + 2, base + 3), seqs(ring.after(base)));
+        assertEquals(List.of(), ring.after(base + 3));
+        // from before this session existed, or ahead of it
+        assertNull(ring.after(base - 1));
+        assertNull(ring.after(base + 4));
+        assertNull(ring.after(-1));
+
+        for (long seq = base + 4; seq <= base + 9; seq++) ring.add(event(seq));
+        assertEquals(base + 6, ring.oldest());
+        assertEquals(List.of(base + 6, base + 7, base + 8, base + 9), seqs(ring.after(base + 5)));
+        assertNull(ring.after(base + 4));
+    }
+
+    private static GameEvent event(long seq) {
+        return new SnapshotEvent(1L, seq, Board.initial(), null);
+    }
+
+    private static List<Long> seqs(List<GameEvent> events) {
+        return events.stream().map(GameEvent::getSeq).toList();
+    }
+}
@@ -0,0 +1,55 @@
+package com.shanks.game.boardgame_backend.session;
+
+import com.shanks.game.boardgame_backend.dto.view.LaneStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameLanesTest {
+
+    @Test
+    void keepsEachGameInSubmissionOrder() throws InterruptedException {
+        GameLanes lanes = new GameLanes(3);
+        int games = 7;
+        int perGame = 2000;
+        // plain lists: a game's tasks never run concurrently
+        List<List<Integer>> seen = new ArrayList<>();
+        for (int g = 0; g < games; g++) seen.add(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(games * perGame);
+
+        Thread[] producers = new Thread[games];
+        for (int g = 0; g < games; g++) {
+            long gameId = g;
+            producers[g] = new Thread(() -> {
+                for (int i = 0; i < perGame; i++) {
+                    int n = i;
+                    lanes.execute(gameId, () -> {
+                        seen.get((int) gameId).add(n);
+                        done.countDown();
+                    });
+                }
+            });
+            producers[g].start();
+        }
+        // a failing task is logged and the lane carries on
+        lanes.execute(1L, () -> {
+            throw new IllegalStateException("boom");
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        for (List<Integer> order : seen) {
+            assertEquals(perGame, order.size());
+            for (int i = 0; i < perGame; i++) assertEquals(i, order.get(i));
+        }
+        lanes.shutdown();
+        List<LaneStats> stats = lanes.stats();
+        assertEquals(3, stats.size());
+        assertEquals(games * perGame + 1, stats.stream().mapToLong(LaneStats::getExecuted).sum());
+        assertTrue(stats.stream().allMatch(s -> s.getDepth() == 0));
+    }
+}
@@ -0,0 +1,48 @@
+package com.shanks.game.boardgame_backend.session;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSessionRegistryTest {
+
+    private GameSessionRegistry registry() {
+        GameSessionRegistry registry = new GameSessionRegistry();
+        ReflectionTestUtils.setField(registry, "lanes", new GameLanes(1));
+        ReflectionTestUtils.setField(registry, "replaySize", 16);
+        return registry;
+    }
+
+    private static GameSession load(GameSessionRegistry registry, Long gameId) {
+        return registry.create(gameId, gameId, 1L, 2L, Board.initial(), null);
+    }
+
+    @Test
+    void firstLoadedSessionWins() {
+        GameSessionRegistry registry = registry();
+        GameSession first = load(registry, 7L);
+        GameSession second = load(registry, 7L);
+
+        assertSame(first, registry.register(first));
+        // a racing load of the same game is dropped
+        assertSame(first, registry.register(second));
+        assertSame(first, registry.get(7L));
+    }
+
+    @Test
+    void closedSessionTakesNoTasksAndIsReplaced() {
+        GameSessionRegistry registry = registry();
+        GameSession first = registry.register(load(registry, 7L));
+        assertTrue(first.submit(() -> { }));
+
+        registry.close(first);
+        assertTrue(first.isClosed());
+        assertFalse(first.submit(() -> fail("ran on a closed session")));
+        assertNull(registry.get(7L));
+
+        GameSession next = load(registry, 7L);
+        assertSame(next, registry.register(next));
+    }
+}
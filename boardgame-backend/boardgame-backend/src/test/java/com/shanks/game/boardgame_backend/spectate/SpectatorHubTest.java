@@ -0,0 +1,110 @@
+package com.shanks.game.boardgame_backend.spectate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shanks.game.boardgame_backend.dto.event.SnapshotEvent;
+import com.shanks.game.boardgame_backend.engine.Board;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpectatorHubTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Message<?>> outbound = new CopyOnWriteArrayList<>();
+
+    @Test
+    void slowSpectatorGetsOnlyTheLatestFrame() throws Exception {
+        SpectatorHub hub = hub();
+        assertTrue(hub.subscribe("s1", "sub-0", 7L));
+        assertTrue(hub.watched(7L));
+
+        hub.position(7L, snapshot(1));
+        await(() -> outbound.size() == 1);
+        // frame 1 is still being written: 2 waits, then 3 replaces it
+        hub.position(7L, snapshot(2));
+        await(() -> hub.stats().getFrames() == 2);
+        hub.position(7L, snapshot(3));
+        await(() -> hub.stats().getFrames() == 3);
+        assertEquals(1, outbound.size());
+        assertEquals(1, hub.stats().getCoalesced());
+
+        delivered(outbound.get(0));
+        await(() -> outbound.size() == 2);
+        JsonNode frame = json(outbound.get(1));
+        assertEquals("SPECTATE", frame.get("type").asText());
+        assertEquals(3, frame.get("seq").asLong());
+        assertEquals(1, frame.get("spectators").asInt());
+        assertEquals("s1", SimpMessageHeaderAccessor.getSessionId(outbound.get(1).getHeaders()));
+        assertEquals("/topic/spectate/7", SimpMessageHeaderAccessor.getDestination(outbound.get(1).getHeaders()));
+
+        delivered(outbound.get(1));
+        Thread.sleep(50);
+        assertEquals(2, outbound.size());
+        hub.shutdown();
+    }
+
+    @Test
+    void countsSpectatorsAndForgetsEmptyGames() throws Exception {
+        SpectatorHub hub = hub();
+        hub.subscribe("s1", "sub-0", 7L);
+        hub.position(7L, snapshot(4));
+        // a later spectator finds the state already there and gets it with the new count
+        assertFalse(hub.subscribe("s2", "sub-3", 7L));
+        assertEquals(2, hub.count(7L));
+        await(() -> outbound.stream().anyMatch(m -> "s2".equals(SimpMessageHeaderAccessor.getSessionId(m.getHeaders()))));
+        Message<?> second = outbound.stream()
+                .filter(m -> "s2".equals(SimpMessageHeaderAccessor.getSessionId(m.getHeaders()))).findFirst().orElseThrow();
+        assertEquals(2, json(second).get("spectators").asInt());
+        assertEquals(4, json(second).get("snapshot").get("seq").asLong());
+
+        hub.unsubscribe("s1", "sub-0");
+        assertEquals(1, hub.count(7L));
+        hub.disconnected("s2");
+        assertFalse(hub.watched(7L));
+        assertNull(SpectatorHub.gameIdOf("/topic/game/7"));
+        assertEquals(7L, SpectatorHub.gameIdOf("/topic/spectate/7"));
+        hub.shutdown();
+    }
+
+    private SpectatorHub hub() {
+        SpectatorHub hub = new SpectatorHub();
+        MessageChannel channel = (message, timeout) -> outbound.add(message);
+        ReflectionTestUtils.setField(hub, "clientOutboundChannel", channel);
+        ReflectionTestUtils.setField(hub, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(hub, "minIntervalMs", 0L);
+        return hub;
+    }
+
+    private static SnapshotEvent snapshot(long seq) {
+        return new SnapshotEvent(7L, seq, Board.initial(), null);
+    }
+
+    // what the outbound channel does once the session has the frame
+    private static void delivered(Message<?> message) {
+        ((ExecutorChannelInterceptor) SpectatorHub.deliveryInterceptor())
+                .afterMessageHandled(message, null, null, null);
+    }
+
+    private JsonNode json(Message<?> message) throws IOException {
+        return objectMapper.readTree((byte[]) message.getPayload());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("timed out");
+            Thread.sleep(5);
+        }
+    }
+}
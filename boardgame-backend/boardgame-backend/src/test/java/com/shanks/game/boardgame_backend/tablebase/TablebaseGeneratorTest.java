@@ -0,0 +1,138 @@
+package com.shanks.game.boardgame_backend.tablebase;
+
+import com.shanks.game.boardgame_backend.engine.Board;
+import com.shanks.game.boardgame_backend.engine.Move;
+import com.shanks.game.boardgame_backend.engine.MoveGenerator;
+import com.shanks.game.boardgame_backend.engine.Outcome;
+import com.shanks.game.boardgame_backend.engine.Rules;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Solves 3v3, 3v4 and 4v3 on a two-row board and checks the tables against positions worked out by hand or search. */
+class TablebaseGeneratorTest {
+
+    private static final int SQUARES = 16;
+
+    @TempDir
+    static Path dir;
+
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    static void generate() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            new TablebaseGenerator(dir, pool, SQUARES).generate(7);
+        } finally {
+            pool.shutdown();
+        }
+        tablebase = Tablebase.open(dir);
+    }
+
+    private static long stones(int... squares) {
+        long mask = 0;
+        for (int i = 0; i < squares.length; i += 2) mask |= 1L << Board.square(squares[i], squares[i + 1]);
+        return mask;
+    }
+
+    @Test
+    void writesEveryMaterial() {
+        assertEquals(3, tablebase.tableCount());
+        assertTrue(tablebase.covers(3, 3));
+        assertTrue(tablebase.covers(3, 4));
+        assertTrue(tablebase.covers(4, 3));
+    }
+
+    @Test
+    void winInOne() {
+        // (1,2) -> (0,2) makes the exact triple (0,0)..(0,2) next to the blue stone on (0,3)
+        Board board = new Board(stones(0, 0, 0, 1, 1, 2), stones(0, 3, 1, 6, 1, 7), 0, 0, 0, Board.RED);
+        assertEquals(new Tablebase.Result(Tablebase.Kind.WIN, 1), tablebase.probe(board));
+        assertEquals(1, search(board, 3));
+    }
+
+    @Test
+    void lossInTwo() {
+        // blue threatens (1,3) -> (0,3), completing (0,1)..(0,3) next to (0,0), and no red move saves a stone
+        Board board = new Board(stones(0, 0, 1, 0, 1, 4), stones(0, 1, 0, 2, 1, 3), 0, 0, 0, Board.RED);
+        assertEquals(new Tablebase.Result(Tablebase.Kind.LOSS, 2), tablebase.probe(board));
+        assertEquals(-2, search(board, 4));
+    }
+
+    @Test
+    void draw() {
+        Board board = new Board(stones(0, 1, 0, 4, 0, 7), stones(0, 3, 1, 0, 1, 1), 0, 0, 0, Board.RED);
+        assertEquals(Tablebase.Kind.DRAW, tablebase.probe(board).kind());
+        assertEquals(0, search(board, 5));
+    }
+
+    @Test
+    void positionsOutsideTheTablesAreNotProbed() {
+        // a stone beyond the two rows
+        assertNull(tablebase.probe(new Board(stones(0, 0, 0, 1, 2, 2), stones(0, 3, 1, 6, 1, 7), 0, 0, 0, Board.RED)));
+        // finished
+        assertNull(tablebase.probe(new Board(stones(0, 0, 0, 1), stones(0, 3, 1, 6, 1, 7), 0, 0, 0, Board.RED)));
+        // not tabulated
+        assertNull(tablebase.probe(new Board(stones(0, 0, 0, 1, 0, 2, 1, 0), stones(0, 4, 0, 5, 1, 6, 1, 7), 0, 0, 0, Board.RED)));
+    }
+
+    @Test
+    void agreesWithSearchOnShortResults() {
+        int depth = 4;
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            long red = 0;
+            long blue = 0;
+            while (Long.bitCount(red) < 3) red |= 1L << random.nextInt(SQUARES);
+            while (Long.bitCount(blue) < 3) blue |= 1L << random.nextInt(SQUARES) & ~red;
+            Board board = new Board(red, blue, 0, 0, 0, Board.RED);
+            Tablebase.Result result = tablebase.probe(board);
+            int expected = result.kind() == Tablebase.Kind.WIN ? result.plies()
+                    : result.kind() == Tablebase.Kind.LOSS ? -result.plies() : 0;
+            // every 3v3 capture ends the game, so search sees exactly the lines the tables do
+            assertEquals(Math.abs(expected) <= depth ? expected : 0, search(board, depth), board::toString);
+        }
+    }
+
+    // plain search on the two rows: n for a win in n plies, -n for a loss in n, 0 when not decided within depth
+    private static int search(Board board, int depth) {
+        if (depth == 0) return 0;
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.generate(board, moves);
+        boolean open = n == 0;
+        int win = Integer.MAX_VALUE;
+        int loss = 0;
+        for (int k = 0; k < n; k++) {
+            if (Move.to(moves[k]) >= SQUARES) continue;
+            Board child = board.copy();
+            Rules.apply(child, moves[k]);
+            Outcome outcome = Rules.outcome(child);
+            int plies;
+            if (outcome == Outcome.DRAW) {
+                open = true;
+                continue;
+            } else if (outcome.isFinished()) {
+                plies = outcome.winner() == board.getTurn() ? 1 : -1;
+            } else {
+                int v = search(child, depth - 1);
+                if (v == 0) {
+                    open = true;
+                    continue;
+                }
+                plies = v > 0 ? -(v + 1) : -v + 1;
+            }
+            if (plies > 0) win = Math.min(win, plies);
+            else loss = Math.max(loss, -plies);
+        }
+        if (win != Integer.MAX_VALUE) return win;
+        return open ? 0 : -loss;
+    }
+}
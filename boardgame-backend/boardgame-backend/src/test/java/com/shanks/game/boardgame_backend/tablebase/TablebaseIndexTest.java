@@ -0,0 +1,62 @@
+package com.shanks.game.boardgame_backend.tablebase;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablebaseIndexTest {
+
+    @Test
+    void sizeIsTheNumberOfPlacements() {
+        TablebaseIndex index = new TablebaseIndex(3, 3);
+        assertEquals(41_664L * 35_990L, index.size());
+    }
+
+    @Test
+    void rankAndUnrankAreInverse() {
+        Random random = new Random(3);
+        for (int k = 1; k <= 6; k++) {
+            for (int i = 0; i < 1000; i++) {
+                long rank = Math.floorMod(random.nextLong(), TablebaseIndex.binomial(64, k));
+                long mask = TablebaseIndex.unrank(rank, k);
+                assertEquals(k, Long.bitCount(mask));
+                assertEquals(rank, TablebaseIndex.rank(mask));
+            }
+        }
+    }
+
+    @Test
+    void walkingTheMasksVisitsConsecutiveIndexes() {
+        TablebaseIndex index = new TablebaseIndex(4, 3);
+        int[] free = new int[64];
+        long limit = 1L << 60;
+        long expected = 0;
+        long red = 0xFL;
+        for (int r = 0; r < 20; r++, red = TablebaseIndex.nextCombination(red)) {
+            TablebaseIndex.freeSquares(red, free);
+            for (long c = 0x7L; c != 0 && c < limit; c = TablebaseIndex.nextCombination(c)) {
+                long blue = TablebaseIndex.expand(c, free);
+                assertEquals(0, red & blue);
+                assertEquals(expected++, index.index(red, blue));
+            }
+        }
+        assertEquals(20 * index.blueCount(), expected);
+    }
+
+    @Test
+    void lastCombinationEndsTheWalk() {
+        long last = 0xE000000000000000L;
+        assertEquals(TablebaseIndex.binomial(64, 3) - 1, TablebaseIndex.rank(last));
+        assertEquals(0, TablebaseIndex.nextCombination(last));
+    }
+
+    @Test
+    void valuesDecode() {
+        assertEquals(new Tablebase.Result(Tablebase.Kind.WIN, 5), Tablebase.decode(Tablebase.win(5)));
+        assertEquals(new Tablebase.Result(Tablebase.Kind.LOSS, 8), Tablebase.decode(Tablebase.loss(8)));
+        assertEquals(Tablebase.Kind.DRAW, Tablebase.decode(Tablebase.DRAW).kind());
+        assertEquals(Tablebase.Kind.UNKNOWN, Tablebase.decode(Tablebase.UNKNOWN).kind());
+    }
+}
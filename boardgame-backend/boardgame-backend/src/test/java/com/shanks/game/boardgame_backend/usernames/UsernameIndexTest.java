@@ -0,0 +1,81 @@
+package com.shanks.game.boardgame_backend.usernames;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsernameIndexTest {
+
+    @Test
+    void ranksExactAndPrefixMatchesFirst() {
+        UsernameIndex index = new UsernameIndex();
+        index.put(1, "xShanks");
+        index.put(2, "Shanks");
+        index.put(3, "shanksfan");
+        index.put(4, "Luffy");
+
+        UsernameIndex.Result result = index.search("SHA", 0, 10);
+        assertEquals(3, result.total());
+        assertEquals(List.of(2L, 3L, 1L), result.hits().stream().map(UsernameIndex.Hit::userId).toList());
+        assertEquals("Shanks", result.hits().get(0).username());
+
+        assertEquals(List.of(3L), index.search("sha", 1, 1).hits().stream().map(UsernameIndex.Hit::userId).toList());
+        assertEquals(List.of(1L), index.search("sha", Set.of(1L, 4L), 0, 10).hits().stream()
+                .map(UsernameIndex.Hit::userId).toList());
+
+        index.put(4, "shabby");
+        index.remove(3);
+        assertEquals(List.of(4L, 2L, 1L), index.search("sh", 0, 10).hits().stream()
+                .map(UsernameIndex.Hit::userId).toList());
+        assertEquals(0, index.search("luffy", 0, 10).total());
+    }
+
+    @Test
+    void matchesContainsUnderRandomRenames() {
+        UsernameIndex index = new UsernameIndex();
+        Map<Long, String> names = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 3000; i++) {
+            long id = random.nextInt(300);
+            if (random.nextInt(10) == 0) {
+                index.remove(id);
+                names.remove(id);
+            } else {
+                String name = randomName(random);
+                index.put(id, name);
+                names.put(id, name);
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            String query = randomName(random).substring(0, 1 + random.nextInt(4));
+            Set<Long> expected = new TreeSet<>();
+            names.forEach((id, name) -> {
+                if (name.toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT))) expected.add(id);
+            });
+            UsernameIndex.Result result = index.search(query, 0, 1000);
+            assertEquals(expected.size(), result.total(), query);
+            assertEquals(expected, new TreeSet<>(result.hits().stream().map(UsernameIndex.Hit::userId).toList()), query);
+        }
+    }
+
+    // small alphabet so short queries hit often
+    private static String randomName(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = 4 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            char c = (char) ('a' + random.nextInt(5));
+            sb.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+        }
+        return sb.toString();
+    }
+}